@@ -0,0 +1,82 @@
+package nl.tufa.graph;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * A* search on a {@link GraphIndex}: Dijkstra's algorithm where the queue is
+ * ordered on the cost so far plus a {@link Heuristic} estimate of the cost
+ * still to go. A good estimate steers the search towards the target and
+ * leaves most of the graph unexplored.
+ * </p>
+ * <p>
+ * A node that is reached again at a lower cost is put back in the queue, so
+ * the result is exact for any admissible heuristic, consistent or not. The
+ * search stops when the target is taken from the queue.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/A*_search_algorithm
+ */
+final class AStarSearch {
+
+	private AStarSearch() {
+	}
+
+	/**
+	 * Returns the cost of the cheapest path from <code>source</code> to
+	 * <code>target</code>, or <code>Float.POSITIVE_INFINITY</code> when the
+	 * target cannot be reached.
+	 */
+	static float search(GraphIndex index, int source, int target, Heuristic heuristic) {
+
+		SearchSpace space = SearchSpace.get(index.getNodeCount());
+		IndexedMinHeap heap = space.heap();
+
+		space.setDistance(source, 0);
+		heap.insertOrDecrease(source, heuristic.estimate(source, target));
+		while (!heap.isEmpty()) {
+			int node = heap.poll();
+			if (node == target)
+				return space.distance(node);
+
+			float cost = space.distance(node);
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+				int next = index.target(i);
+				float total = cost + index.weight(i);
+				if (total < space.distance(next)) {
+					space.setDistance(next, total, i);
+					heap.insertOrDecrease(next, total + heuristic.estimate(next, target));
+				}
+			}
+		}
+		return Float.POSITIVE_INFINITY;
+	}
+
+}
@@ -0,0 +1,250 @@
+package nl.tufa.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Single source shortest paths with negative edge weights, by the queue based
+ * variant of Bellman-Ford (SPFA) run in parallel rounds. Every round relaxes
+ * the out-edges of the nodes improved in the previous round, in parallel over
+ * the flat edge arrays of the {@link GraphIndex}.
+ * </p>
+ * <p>
+ * Distance and predecessor edge of a node are packed in one <code>long</code>
+ * so both are updated by a single compare-and-set and always belong together.
+ * A cycle among the predecessors is a negative cycle; the predecessors are
+ * checked for cycles whenever the work since the last check exceeds the
+ * number of nodes, so a negative cycle is found long before the V - 1 rounds
+ * of the plain algorithm have passed, at an amortised constant cost per
+ * relaxation.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Bellman%E2%80%93Ford_algorithm
+ * @see https://en.wikipedia.org/wiki/Shortest_Path_Faster_Algorithm
+ */
+final class BellmanFord {
+
+	private static final long UNREACHED = pack(Float.POSITIVE_INFINITY, -1);
+
+	private final GraphIndex index;
+	private final AtomicLongArray state;
+
+	// Nodes improved in the current round, each added once per round.
+	private final AtomicIntegerArray improvedRound;
+	private final int[] improved;
+	private final AtomicInteger improvedCount = new AtomicInteger();
+
+	private BellmanFord(GraphIndex index) {
+		this.index = index;
+		int nodeCount = index.getNodeCount();
+		state = new AtomicLongArray(nodeCount);
+		for (int node = 0; node < nodeCount; node++)
+			state.set(node, UNREACHED);
+		improvedRound = new AtomicIntegerArray(nodeCount);
+		improved = new int[nodeCount];
+	}
+
+	/**
+	 * Returns the cost from the source to every node, by node id, computed on
+	 * the given pool.
+	 */
+	static float[] search(GraphIndex index, int source, ForkJoinPool pool)
+			throws NegativeCycleException, InterruptedException {
+		return execute(index, new int[] { source }, pool).distances();
+	}
+
+	/**
+	 * Returns the shortest path tree of the source, computed on the given
+	 * pool.
+	 */
+	static ShortestPathTree tree(GraphIndex index, int source, ForkJoinPool pool)
+			throws NegativeCycleException, InterruptedException {
+		BellmanFord search = execute(index, new int[] { source }, pool);
+		int[] predecessors = new int[index.getNodeCount()];
+		for (int node = 0; node < predecessors.length; node++)
+			predecessors[node] = predecessor(search.state.get(node));
+		return new ShortestPathTree(index, source, search.distances(), predecessors);
+	}
+
+	/**
+	 * Returns a potential for every node, by node id, such that
+	 * <code>weight + potential(from) - potential(to)</code> is non-negative for
+	 * every edge: the cost from a virtual source with an edge of weight 0 to
+	 * every node.
+	 */
+	static float[] potentials(GraphIndex index, ForkJoinPool pool) throws NegativeCycleException, InterruptedException {
+		return execute(index, IntStream.range(0, index.getNodeCount()).toArray(), pool).distances();
+	}
+
+	private static BellmanFord execute(GraphIndex index, int[] sources, ForkJoinPool pool)
+			throws NegativeCycleException, InterruptedException {
+
+		BellmanFord search = new BellmanFord(index);
+		int[] cycle;
+		try {
+			cycle = pool.submit(() -> search.run(sources)).get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+		if (cycle != null) {
+			List<GraphNode> nodes = new ArrayList<>(cycle.length);
+			for (int node : cycle)
+				nodes.add(index.getNode(node));
+			throw new NegativeCycleException(nodes);
+		}
+		return search;
+	}
+
+	private float[] distances() {
+		float[] result = new float[index.getNodeCount()];
+		for (int node = 0; node < result.length; node++)
+			result[node] = distance(state.get(node));
+		return result;
+	}
+
+	/**
+	 * Relaxes until nothing improves, returning a negative cycle or
+	 * <code>null</code>.
+	 */
+	private int[] run(int[] sources) {
+
+		for (int source : sources)
+			state.set(source, pack(0, -1));
+		int[] frontier = sources;
+		long work = 0;
+		int round = 0;
+		while (frontier.length > 0) {
+			round++;
+			for (int node : frontier)
+				work += index.endEdge(node) - index.firstEdge(node) + 1;
+			frontier = relax(frontier, round);
+			if (work >= index.getNodeCount() || round >= index.getNodeCount()) {
+				work = 0;
+				int[] cycle = findCycle();
+				if (cycle != null)
+					return cycle;
+			}
+		}
+		return findCycle();
+	}
+
+	private int[] relax(int[] nodes, int round) {
+		improvedCount.set(0);
+		IntStream.of(nodes).parallel().forEach(node -> {
+			float cost = distance(state.get(node));
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+				int next = index.target(i);
+				if (lower(next, cost + index.weight(i), i) && improvedRound.getAndSet(next, round) != round)
+					improved[improvedCount.getAndIncrement()] = next;
+			}
+		});
+		int[] result = new int[improvedCount.get()];
+		System.arraycopy(improved, 0, result, 0, result.length);
+		return result;
+	}
+
+	/**
+	 * Atomically sets the distance and predecessor edge of the node when the
+	 * distance is an improvement.
+	 */
+	private boolean lower(int node, float cost, int edge) {
+		long packed = pack(cost, edge);
+		long current = state.get(node);
+		while (cost < distance(current)) {
+			if (state.compareAndSet(node, current, packed))
+				return true;
+			current = state.get(node);
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a cycle among the predecessors in path order, or
+	 * <code>null</code>. Every node is walked at most once: a walk stops at
+	 * a node visited by an earlier walk, and has found a cycle when it meets
+	 * itself.
+	 */
+	private int[] findCycle() {
+
+		int nodeCount = index.getNodeCount();
+		int[] walk = new int[nodeCount];
+		for (int start = 0; start < nodeCount; start++) {
+			int node = start;
+			while (node >= 0 && walk[node] == 0) {
+				walk[node] = start + 1;
+				node = previous(node);
+			}
+			if (node >= 0 && walk[node] == start + 1) {
+				List<Integer> cycle = new ArrayList<>();
+				int member = node;
+				do {
+					cycle.add(member);
+					member = previous(member);
+				} while (member != node);
+				Collections.reverse(cycle);
+				return cycle.stream().mapToInt(Integer::intValue).toArray();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the node before the given one on its current path, or -1.
+	 */
+	private int previous(int node) {
+		int edge = predecessor(state.get(node));
+		return (edge < 0 ? -1 : index.start(edge));
+	}
+
+	private static long pack(float distance, int edge) {
+		return ((long) Float.floatToIntBits(distance) << 32) | (edge & 0xFFFFFFFFL);
+	}
+
+	private static float distance(long packed) {
+		return Float.intBitsToFloat((int) (packed >>> 32));
+	}
+
+	private static int predecessor(long packed) {
+		return (int) packed;
+	}
+
+}
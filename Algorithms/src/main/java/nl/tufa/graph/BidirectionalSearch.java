@@ -0,0 +1,110 @@
+package nl.tufa.graph;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Bidirectional variant of Dijkstra's algorithm. A forward search grows from
+ * the source over the outgoing edges and a backward search grows from the
+ * target over the incoming edges of the {@link GraphIndex}. The side with the
+ * smaller queue is expanded, and every edge that connects a node of one search
+ * to a node reached by the other one is a candidate for the shortest path.
+ * </p>
+ * <p>
+ * Once the smallest keys in both queues add up to at least the best candidate
+ * found so far, no path through unsettled nodes can be shorter, so the
+ * candidate is the shortest path. Edge weights are expected to be
+ * non-negative.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Bidirectional_search
+ */
+final class BidirectionalSearch {
+
+	private BidirectionalSearch() {
+	}
+
+	/**
+	 * Returns the cost of the cheapest path from <code>source</code> to
+	 * <code>target</code>, or <code>Float.POSITIVE_INFINITY</code> when the
+	 * target cannot be reached.
+	 */
+	static float search(GraphIndex index, int source, int target) {
+
+		if (source == target)
+			return 0;
+
+		SearchSpace forward = SearchSpace.get(index.getNodeCount());
+		SearchSpace backward = SearchSpace.getBackward(index.getNodeCount());
+		IndexedMinHeap forwardHeap = forward.heap();
+		IndexedMinHeap backwardHeap = backward.heap();
+
+		forward.setDistance(source, 0);
+		forwardHeap.insertOrDecrease(source, 0);
+		backward.setDistance(target, 0);
+		backwardHeap.insertOrDecrease(target, 0);
+		float best = Float.POSITIVE_INFINITY;
+
+		while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()) {
+			if (forwardHeap.peekKey() + backwardHeap.peekKey() >= best)
+				break;
+
+			if (forwardHeap.size() <= backwardHeap.size()) {
+				int node = forwardHeap.poll();
+				float cost = forward.distance(node);
+				for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+					int next = index.target(i);
+					float total = cost + index.weight(i);
+					if (total < forward.distance(next)) {
+						forward.setDistance(next, total);
+						forwardHeap.insertOrDecrease(next, total);
+					}
+					if (backward.reached(next) && total + backward.distance(next) < best)
+						best = total + backward.distance(next);
+				}
+			} else {
+				int node = backwardHeap.poll();
+				float cost = backward.distance(node);
+				for (int i = index.firstInEdge(node), last = index.endInEdge(node); i < last; i++) {
+					int previous = index.source(i);
+					float total = cost + index.inWeight(i);
+					if (total < backward.distance(previous)) {
+						backward.setDistance(previous, total);
+						backwardHeap.insertOrDecrease(previous, total);
+					}
+					if (forward.reached(previous) && total + forward.distance(previous) < best)
+						best = total + forward.distance(previous);
+				}
+			}
+		}
+		return best;
+	}
+
+}
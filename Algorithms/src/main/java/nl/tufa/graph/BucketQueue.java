@@ -0,0 +1,163 @@
+package nl.tufa.graph;
+
+import java.util.Arrays;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Monotone bucket queue on dense integer node ids with small non-negative
+ * integer keys, Dial's variant of the priority queue of Dijkstra's
+ * algorithm. Every key gets a bucket, a doubly linked list of nodes threaded
+ * through primitive arrays, and the minimum is found by moving a cursor over
+ * the buckets. Insert and decrease-key are O(1) and the cursor moves at most
+ * once over every key up to the largest distance.
+ * </p>
+ * <p>
+ * The queue is monotone: keys may never be lower than the last key taken
+ * from the queue. With edge weights of at most <code>C</code> all keys in the
+ * queue lie within <code>C</code> of the cursor, so <code>C + 1</code>
+ * buckets are reused cyclically.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Bucket_queue
+ */
+final class BucketQueue {
+
+	private int[] heads;
+	private int[] next;
+	private int[] previous;
+	private int[] keys;
+	private int bucketCount = 1;
+	private int size = 0;
+	private int cursor = 0;
+
+	BucketQueue(int capacity, int bucketCount) {
+		next = new int[Math.max(capacity, 1)];
+		previous = new int[Math.max(capacity, 1)];
+		keys = new int[Math.max(capacity, 1)];
+		Arrays.fill(keys, -1);
+		heads = new int[0];
+		reset(bucketCount);
+	}
+
+	int capacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Empties the queue and prepares it for keys up to
+	 * <code>bucketCount - 1</code> ahead of the cursor.
+	 */
+	void reset(int bucketCount) {
+		clear();
+		if (heads.length < bucketCount) {
+			heads = new int[bucketCount];
+			Arrays.fill(heads, -1);
+		}
+		this.bucketCount = bucketCount;
+		cursor = 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	boolean contains(int node) {
+		return keys[node] >= 0;
+	}
+
+	/**
+	 * Inserts the node with the given key, or lowers its key when the node is
+	 * already in the queue with a higher key.
+	 */
+	void insertOrDecrease(int node, int key) {
+		int old = keys[node];
+		if (old >= 0) {
+			if (key >= old)
+				return;
+			unlink(node, old % bucketCount);
+		} else {
+			size++;
+		}
+		keys[node] = key;
+		int bucket = key % bucketCount;
+		int head = heads[bucket];
+		next[node] = head;
+		previous[node] = -1;
+		if (head >= 0)
+			previous[head] = node;
+		heads[bucket] = node;
+	}
+
+	int poll() {
+		int bucket = cursor % bucketCount;
+		while (heads[bucket] < 0) {
+			cursor++;
+			if (++bucket == bucketCount)
+				bucket = 0;
+		}
+		int node = heads[bucket];
+		unlink(node, bucket);
+		keys[node] = -1;
+		size--;
+		return node;
+	}
+
+	/**
+	 * Empties the queue, touching only the buckets in use and the nodes still
+	 * in them.
+	 */
+	void clear() {
+		for (int bucket = 0; size > 0 && bucket < bucketCount; bucket++) {
+			for (int node = heads[bucket]; node >= 0; node = next[node]) {
+				keys[node] = -1;
+				size--;
+			}
+			heads[bucket] = -1;
+		}
+	}
+
+	private void unlink(int node, int bucket) {
+		int before = previous[node];
+		int after = next[node];
+		if (before >= 0)
+			next[before] = after;
+		else
+			heads[bucket] = after;
+		if (after >= 0)
+			previous[after] = before;
+	}
+
+}
@@ -0,0 +1,156 @@
+package nl.tufa.graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Array of 4 byte values, ints or floats, outside the Java heap. The values
+ * are spread over direct or memory mapped buffers of at most 1 GB each, so an
+ * array is not bound by the 2 GB of a single buffer: int positions address up
+ * to <code>Integer.MAX_VALUE</code> values, and arrays allocated with a long
+ * length, such as a {@link DistanceMatrix}, are addressed by long positions.
+ * Access costs one shift and one mask over a plain buffer.
+ * </p>
+ * <p>
+ * Values are stored in native byte order for direct buffers and little endian
+ * for mapped files.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ */
+final class BufferArray {
+
+	private static final int SHIFT = 28;
+	private static final int CHUNK = 1 << SHIFT;
+	private static final int MASK = CHUNK - 1;
+
+	private final ByteBuffer[] buffers;
+	private final long length;
+
+	private BufferArray(ByteBuffer[] buffers, long length) {
+		this.buffers = buffers;
+		this.length = length;
+	}
+
+	/**
+	 * Allocates an array of zeros in native memory.
+	 */
+	static BufferArray allocate(int length) {
+		return allocate(length, null);
+	}
+
+	/**
+	 * Allocates an array of zeros in native memory that may hold more than
+	 * <code>Integer.MAX_VALUE</code> values, to be addressed by long
+	 * positions.
+	 */
+	static BufferArray allocate(long length) {
+		return allocate(length, null);
+	}
+
+	private static BufferArray allocate(long length, BufferArray copy) {
+		if (length < 0)
+			throw new IllegalArgumentException("Negative length " + length + ".");
+		ByteBuffer[] buffers = new ByteBuffer[chunks(length)];
+		for (int i = 0; i < buffers.length; i++) {
+			int values = (int) Math.min(CHUNK, length - (long) i * CHUNK);
+			if (copy != null && i < copy.buffers.length && copy.buffers[i].capacity() == 4 * values) {
+				buffers[i] = copy.buffers[i];
+				continue;
+			}
+			buffers[i] = ByteBuffer.allocateDirect(4 * values).order(ByteOrder.nativeOrder());
+			if (copy != null && i < copy.buffers.length) {
+				ByteBuffer source = copy.buffers[i].duplicate();
+				source.clear().limit(Math.min(source.capacity(), 4 * values));
+				buffers[i].put(source).clear();
+			}
+		}
+		return new BufferArray(buffers, length);
+	}
+
+	/**
+	 * Maps <code>length</code> little endian values of the file, starting at
+	 * <code>position</code>, read-only.
+	 */
+	static BufferArray map(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer[] buffers = new ByteBuffer[chunks(length)];
+		for (int i = 0; i < buffers.length; i++) {
+			int values = Math.min(CHUNK, length - i * CHUNK);
+			buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + 4L * i * CHUNK, 4L * values)
+					.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		return new BufferArray(buffers, length);
+	}
+
+	private static int chunks(long length) {
+		return Math.toIntExact((length + CHUNK - 1) >>> SHIFT);
+	}
+
+	int length() {
+		return Math.toIntExact(length);
+	}
+
+	/**
+	 * Returns an array of the given length with the values of this one,
+	 * sharing the full buffers and padding with zeros.
+	 */
+	BufferArray copyOf(int length) {
+		return allocate(length, this);
+	}
+
+	int getInt(int index) {
+		return buffers[index >>> SHIFT].getInt((index & MASK) << 2);
+	}
+
+	float getFloat(int index) {
+		return buffers[index >>> SHIFT].getFloat((index & MASK) << 2);
+	}
+
+	void setInt(int index, int value) {
+		buffers[index >>> SHIFT].putInt((index & MASK) << 2, value);
+	}
+
+	void setFloat(int index, float value) {
+		buffers[index >>> SHIFT].putFloat((index & MASK) << 2, value);
+	}
+
+	float getFloat(long index) {
+		return buffers[(int) (index >>> SHIFT)].getFloat((int) (index & MASK) << 2);
+	}
+
+	void setFloat(long index, float value) {
+		buffers[(int) (index >>> SHIFT)].putFloat((int) (index & MASK) << 2, value);
+	}
+
+}
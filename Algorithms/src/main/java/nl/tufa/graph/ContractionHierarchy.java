@@ -0,0 +1,807 @@
+package nl.tufa.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Contraction hierarchy of a {@link Graph}, for answering many shortest path
+ * queries on a graph that does not change. Preprocessing contracts the nodes
+ * one by one in order of importance: a contracted node is removed from the
+ * graph and every shortest path running through it is preserved by a
+ * shortcut edge between its neighbors, unless a witness path that avoids the
+ * node is found. The order of contraction is the rank of a node.
+ * </p>
+ * <p>
+ * A query is a bidirectional Dijkstra search where the forward search from
+ * the start only follows edges to higher ranked nodes and the backward search
+ * from the end only follows edges coming from higher ranked nodes. Both
+ * searches stay small, typically a few hundred nodes even on road networks
+ * with millions of nodes. Every shortcut remembers the node it bypasses, so
+ * the path found by a query can be unpacked into edges of the graph.
+ * </p>
+ * <p>
+ * Preprocessing runs in rounds. Each round selects the nodes that are less
+ * important than all of their remaining neighbors, an independent set, and
+ * computes the shortcuts for all of them in parallel on the common fork-join
+ * pool. The hierarchy can be saved to and loaded from a stream, so it only
+ * has to be built once per version of the graph. A loaded hierarchy is
+ * checked against the {@link GraphIndex#checksum()} of the graph it is
+ * installed on.
+ * </p>
+ * <p>
+ * Edge weights must be non-negative.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Contraction_hierarchies
+ */
+public final class ContractionHierarchy {
+
+	private static final int MAGIC = 0x43480001;
+
+	/**
+	 * Maximum number of nodes settled by a witness search, when contracting a
+	 * node and when only estimating its importance. Stopping earlier only adds
+	 * a superfluous shortcut, it never loses a shortest path.
+	 */
+	private static final int WITNESS_LIMIT = 500;
+	private static final int ESTIMATE_LIMIT = 50;
+
+	private final int nodeCount;
+	private final long checksum;
+	private final int[] rank;
+
+	// Edges to higher ranked nodes, by start node.
+	private final int[] upOffsets;
+	private final int[] upTargets;
+	private final float[] upWeights;
+	private final int[] upMiddles;
+
+	// Edges from higher ranked nodes, by end node.
+	private final int[] downOffsets;
+	private final int[] downSources;
+	private final float[] downWeights;
+	private final int[] downMiddles;
+
+	private ContractionHierarchy(int nodeCount, long checksum, int[] rank, int[] upOffsets, int[] upTargets,
+			float[] upWeights, int[] upMiddles, int[] downOffsets, int[] downSources, float[] downWeights,
+			int[] downMiddles) {
+		this.nodeCount = nodeCount;
+		this.checksum = checksum;
+		this.rank = rank;
+		this.upOffsets = upOffsets;
+		this.upTargets = upTargets;
+		this.upWeights = upWeights;
+		this.upMiddles = upMiddles;
+		this.downOffsets = downOffsets;
+		this.downSources = downSources;
+		this.downWeights = downWeights;
+		this.downMiddles = downMiddles;
+	}
+
+	/**
+	 * Contracts the current index of the graph.
+	 */
+	public static ContractionHierarchy build(Graph graph) throws IllegalArgumentException {
+		return new Contraction(graph.getIndex()).run();
+	}
+
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Checksum of the index of the graph this hierarchy was built for.
+	 */
+	public long getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * Returns the position of the node in the contraction order.
+	 */
+	public int getRank(int node) {
+		return rank[node];
+	}
+
+	/**
+	 * Number of edges in the hierarchy, original edges plus shortcuts.
+	 */
+	public int getEdgeCount() {
+		return upTargets.length + downSources.length;
+	}
+
+	/**
+	 * Returns the cost of the cheapest path between two node ids, or
+	 * <code>Float.POSITIVE_INFINITY</code> when there is no such path.
+	 */
+	public float query(int source, int target) {
+
+		SearchSpace forward = SearchSpace.get(nodeCount);
+		SearchSpace backward = SearchSpace.getBackward(nodeCount);
+		int meeting = meet(forward, backward, source, target);
+		return (meeting < 0 ? Float.POSITIVE_INFINITY : forward.distance(meeting) + backward.distance(meeting));
+	}
+
+	/**
+	 * Returns the node ids of the cheapest path between two node ids, from
+	 * source to target, or <code>null</code> when there is no such path. Every
+	 * shortcut on the path found by the query is replaced by the two edges
+	 * through the node it bypasses, until only edges of the graph remain.
+	 */
+	public int[] path(int source, int target) {
+
+		SearchSpace forward = SearchSpace.get(nodeCount);
+		SearchSpace backward = SearchSpace.getBackward(nodeCount);
+		int meeting = meet(forward, backward, source, target);
+		if (meeting < 0)
+			return null;
+
+		// Edges of the hierarchy from source to target, as start, end and
+		// middle node: the upward half is traced back from the meeting node.
+		int[] edges = new int[3 * 8];
+		int count = 0;
+		for (int node = meeting, i = forward.predecessor(node); i >= 0; i = forward.predecessor(node)) {
+			int start = owner(upOffsets, i);
+			if (3 * count == edges.length)
+				edges = Arrays.copyOf(edges, edges.length * 2);
+			edges[3 * count] = start;
+			edges[3 * count + 1] = node;
+			edges[3 * count + 2] = upMiddles[i];
+			count++;
+			node = start;
+		}
+		for (int a = 0, b = count - 1; a < b; a++, b--) {
+			for (int k = 0; k < 3; k++) {
+				int swap = edges[3 * a + k];
+				edges[3 * a + k] = edges[3 * b + k];
+				edges[3 * b + k] = swap;
+			}
+		}
+		for (int node = meeting, i = backward.predecessor(node); i >= 0; i = backward.predecessor(node)) {
+			int end = owner(downOffsets, i);
+			if (3 * count == edges.length)
+				edges = Arrays.copyOf(edges, edges.length * 2);
+			edges[3 * count] = node;
+			edges[3 * count + 1] = end;
+			edges[3 * count + 2] = downMiddles[i];
+			count++;
+			node = end;
+		}
+
+		// Unpacks the edges with an explicit stack, the last edge at the
+		// bottom, so the nodes come out in order.
+		int[] stack = new int[Math.max(3 * count, 24)];
+		int size = 0;
+		for (int e = count - 1; e >= 0; e--, size += 3)
+			System.arraycopy(edges, 3 * e, stack, size, 3);
+		int[] path = new int[count + 1];
+		int length = 0;
+		path[length++] = source;
+		while (size > 0) {
+			size -= 3;
+			int start = stack[size];
+			int end = stack[size + 1];
+			int middle = stack[size + 2];
+			if (middle < 0) {
+				if (length == path.length)
+					path = Arrays.copyOf(path, length * 2);
+				path[length++] = end;
+				continue;
+			}
+			if (size + 6 > stack.length)
+				stack = Arrays.copyOf(stack, stack.length * 2);
+			// The middle node ranks below both ends, so both halves are edges
+			// of the middle node: the second one upward, the first downward.
+			stack[size] = middle;
+			stack[size + 1] = end;
+			stack[size + 2] = upMiddles[edge(upOffsets, upTargets, middle, end)];
+			stack[size + 3] = start;
+			stack[size + 4] = middle;
+			stack[size + 5] = downMiddles[edge(downOffsets, downSources, middle, start)];
+			size += 6;
+		}
+		return Arrays.copyOf(path, length);
+	}
+
+	/**
+	 * Runs the bidirectional upward search between two node ids, recording
+	 * the edge position every node was reached through, and returns the node
+	 * where the cheapest path meets, or -1 when there is no path.
+	 */
+	private int meet(SearchSpace forward, SearchSpace backward, int source, int target) {
+
+		IndexedMinHeap forwardHeap = forward.heap();
+		IndexedMinHeap backwardHeap = backward.heap();
+
+		forward.setDistance(source, 0);
+		forwardHeap.insertOrDecrease(source, 0);
+		backward.setDistance(target, 0);
+		backwardHeap.insertOrDecrease(target, 0);
+		float best = (source == target ? 0 : Float.POSITIVE_INFINITY);
+		int meeting = (source == target ? source : -1);
+
+		while (true) {
+			boolean forwardActive = !forwardHeap.isEmpty() && forwardHeap.peekKey() < best;
+			boolean backwardActive = !backwardHeap.isEmpty() && backwardHeap.peekKey() < best;
+			if (!forwardActive && !backwardActive)
+				break;
+
+			if (forwardActive && (!backwardActive || forwardHeap.size() <= backwardHeap.size())) {
+				int node = forwardHeap.poll();
+				float cost = forward.distance(node);
+				if (backward.reached(node) && cost + backward.distance(node) < best) {
+					best = cost + backward.distance(node);
+					meeting = node;
+				}
+				for (int i = upOffsets[node]; i < upOffsets[node + 1]; i++) {
+					int next = upTargets[i];
+					float total = cost + upWeights[i];
+					if (total < forward.distance(next)) {
+						forward.setDistance(next, total, i);
+						forwardHeap.insertOrDecrease(next, total);
+					}
+				}
+			} else {
+				int node = backwardHeap.poll();
+				float cost = backward.distance(node);
+				if (forward.reached(node) && cost + forward.distance(node) < best) {
+					best = cost + forward.distance(node);
+					meeting = node;
+				}
+				for (int i = downOffsets[node]; i < downOffsets[node + 1]; i++) {
+					int previous = downSources[i];
+					float total = cost + downWeights[i];
+					if (total < backward.distance(previous)) {
+						backward.setDistance(previous, total, i);
+						backwardHeap.insertOrDecrease(previous, total);
+					}
+				}
+			}
+		}
+		return meeting;
+	}
+
+	/**
+	 * Returns the node owning the edge at the given position of a compressed
+	 * row layout.
+	 */
+	private static int owner(int[] offsets, int position) {
+		int low = 0;
+		int high = offsets.length - 2;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (offsets[middle] <= position)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the position of the edge between the node and the neighbor in
+	 * a compressed row layout.
+	 */
+	private static int edge(int[] offsets, int[] neighbors, int node, int neighbor) {
+		for (int i = offsets[node]; i < offsets[node + 1]; i++)
+			if (neighbors[i] == neighbor)
+				return i;
+		throw new IllegalStateException("Shortcut without its edges.");
+	}
+
+	/**
+	 * Returns the costs from every source to every target, by position in the
+	 * arrays of node ids, with <code>Float.POSITIVE_INFINITY</code> where there
+	 * is no path or the id is negative.
+	 * <p>
+	 * Bucket based many-to-many search: the backward upward search of every
+	 * target leaves its costs in a bucket at each node it settles, after which
+	 * the forward upward search of every source only has to scan the buckets
+	 * of the nodes it settles. Both phases run in parallel, one upward search
+	 * per source or target instead of one query per pair.
+	 * </p>
+	 */
+	public float[][] table(int[] sources, int[] targets) {
+
+		// Settled nodes and costs of the backward search of every target.
+		int[][] reached = new int[targets.length][];
+		float[][] costs = new float[targets.length][];
+		IntStream.range(0, targets.length).parallel().forEach(t -> {
+			if (targets[t] < 0) {
+				reached[t] = new int[0];
+				costs[t] = new float[0];
+				return;
+			}
+			SearchSpace space = SearchSpace.getBackward(nodeCount);
+			reached[t] = upward(space, targets[t], true);
+			costs[t] = new float[reached[t].length];
+			for (int i = 0; i < reached[t].length; i++)
+				costs[t][i] = space.distance(reached[t][i]);
+		});
+
+		// Buckets by node, as flat arrays.
+		int[] bucketOffsets = new int[nodeCount + 1];
+		for (int[] nodes : reached)
+			for (int node : nodes)
+				bucketOffsets[node + 1]++;
+		for (int node = 0; node < nodeCount; node++)
+			bucketOffsets[node + 1] += bucketOffsets[node];
+		int[] bucketTargets = new int[bucketOffsets[nodeCount]];
+		float[] bucketCosts = new float[bucketTargets.length];
+		int[] fill = Arrays.copyOf(bucketOffsets, nodeCount);
+		for (int t = 0; t < targets.length; t++) {
+			for (int i = 0; i < reached[t].length; i++) {
+				int position = fill[reached[t][i]]++;
+				bucketTargets[position] = t;
+				bucketCosts[position] = costs[t][i];
+			}
+		}
+
+		float[][] table = new float[sources.length][targets.length];
+		IntStream.range(0, sources.length).parallel().forEach(s -> {
+			float[] row = table[s];
+			Arrays.fill(row, Float.POSITIVE_INFINITY);
+			if (sources[s] < 0)
+				return;
+			SearchSpace space = SearchSpace.get(nodeCount);
+			for (int node : upward(space, sources[s], false)) {
+				float cost = space.distance(node);
+				for (int i = bucketOffsets[node]; i < bucketOffsets[node + 1]; i++) {
+					float total = cost + bucketCosts[i];
+					if (total < row[bucketTargets[i]])
+						row[bucketTargets[i]] = total;
+				}
+			}
+		});
+		return table;
+	}
+
+	/**
+	 * Runs one side of a query from the node until its queue is empty,
+	 * returning the settled nodes. Their costs stay in the search space.
+	 */
+	private int[] upward(SearchSpace space, int start, boolean backward) {
+
+		IndexedMinHeap heap = space.heap();
+		int[] offsets = (backward ? downOffsets : upOffsets);
+		int[] neighbors = (backward ? downSources : upTargets);
+		float[] weights = (backward ? downWeights : upWeights);
+		int[] settled = new int[16];
+		int count = 0;
+
+		space.setDistance(start, 0);
+		heap.insertOrDecrease(start, 0);
+		while (!heap.isEmpty()) {
+			int node = heap.poll();
+			float cost = space.distance(node);
+			if (count == settled.length)
+				settled = Arrays.copyOf(settled, count * 2);
+			settled[count++] = node;
+			for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+				int next = neighbors[i];
+				float total = cost + weights[i];
+				if (total < space.distance(next)) {
+					space.setDistance(next, total);
+					heap.insertOrDecrease(next, total);
+				}
+			}
+		}
+		return Arrays.copyOf(settled, count);
+	}
+
+	/**
+	 * Writes the hierarchy in a compact binary format. The stream is not
+	 * closed.
+	 */
+	public void save(OutputStream stream) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+		out.writeInt(MAGIC);
+		out.writeInt(nodeCount);
+		out.writeLong(checksum);
+		writeInts(out, rank);
+		writeInts(out, upOffsets);
+		writeInts(out, upTargets);
+		writeFloats(out, upWeights);
+		writeInts(out, upMiddles);
+		writeInts(out, downOffsets);
+		writeInts(out, downSources);
+		writeFloats(out, downWeights);
+		writeInts(out, downMiddles);
+		out.flush();
+	}
+
+	/**
+	 * Reads a hierarchy written by {@link #save(OutputStream)}. The stream is
+	 * not closed.
+	 */
+	public static ContractionHierarchy load(InputStream stream) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+		if (in.readInt() != MAGIC)
+			throw new IOException("Not a contraction hierarchy.");
+		int nodeCount = in.readInt();
+		long checksum = in.readLong();
+		return new ContractionHierarchy(nodeCount, checksum, readInts(in), readInts(in), readInts(in), readFloats(in),
+				readInts(in), readInts(in), readInts(in), readFloats(in), readInts(in));
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		out.writeInt(values.length);
+		for (int value : values)
+			out.writeInt(value);
+	}
+
+	private static void writeFloats(DataOutputStream out, float[] values) throws IOException {
+		out.writeInt(values.length);
+		for (float value : values)
+			out.writeFloat(value);
+	}
+
+	private static int[] readInts(DataInputStream in) throws IOException {
+		int[] values = new int[in.readInt()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = in.readInt();
+		return values;
+	}
+
+	private static float[] readFloats(DataInputStream in) throws IOException {
+		float[] values = new float[in.readInt()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = in.readFloat();
+		return values;
+	}
+
+	/**
+	 * Edges of a node in the remaining graph during preprocessing, with the
+	 * contracted node a shortcut bypasses (-1 for an original edge).
+	 */
+	private static final class Adjacency {
+
+		private int[] nodes = new int[4];
+		private float[] weights = new float[4];
+		private int[] middles = new int[4];
+		private int size = 0;
+
+		private void put(int node, float weight, int middle) {
+			for (int i = 0; i < size; i++) {
+				if (nodes[i] == node) {
+					if (weight < weights[i]) {
+						weights[i] = weight;
+						middles[i] = middle;
+					}
+					return;
+				}
+			}
+			if (size == nodes.length) {
+				nodes = Arrays.copyOf(nodes, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+				middles = Arrays.copyOf(middles, size * 2);
+			}
+			nodes[size] = node;
+			weights[size] = weight;
+			middles[size] = middle;
+			size++;
+		}
+
+		private boolean contains(int node) {
+			for (int i = 0; i < size; i++)
+				if (nodes[i] == node)
+					return true;
+			return false;
+		}
+
+		private void remove(int node) {
+			for (int i = 0; i < size; i++) {
+				if (nodes[i] == node) {
+					size--;
+					nodes[i] = nodes[size];
+					weights[i] = weights[size];
+					middles[i] = middles[size];
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Shortcuts needed to contract a node, as parallel arrays.
+	 */
+	private static final class Shortcuts {
+
+		private int[] starts = new int[4];
+		private int[] ends = new int[4];
+		private float[] weights = new float[4];
+		private int size = 0;
+
+		private void add(int start, int end, float weight) {
+			if (size == starts.length) {
+				starts = Arrays.copyOf(starts, size * 2);
+				ends = Arrays.copyOf(ends, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+			starts[size] = start;
+			ends[size] = end;
+			weights[size] = weight;
+			size++;
+		}
+	}
+
+	/**
+	 * State of the preprocessing.
+	 */
+	private static final class Contraction {
+
+		private final GraphIndex index;
+		private final int nodeCount;
+		private final Adjacency[] out;
+		private final Adjacency[] in;
+		private final int[] order;
+		private final int[] contractedNeighbors;
+		private final int[] priority;
+		private final int[] rank;
+		private final int[][] upTargets;
+		private final float[][] upWeights;
+		private final int[][] upMiddles;
+		private final int[][] downSources;
+		private final float[][] downWeights;
+		private final int[][] downMiddles;
+
+		private Contraction(GraphIndex index) throws IllegalArgumentException {
+			this.index = index;
+			nodeCount = index.getNodeCount();
+			if (index.hasNegativeWeights())
+				throw new IllegalArgumentException("Contraction hierarchies require non-negative weights.");
+			out = new Adjacency[nodeCount];
+			in = new Adjacency[nodeCount];
+			for (int node = 0; node < nodeCount; node++) {
+				out[node] = new Adjacency();
+				in[node] = new Adjacency();
+			}
+			for (int node = 0; node < nodeCount; node++) {
+				for (int i = index.firstEdge(node); i < index.endEdge(node); i++) {
+					out[node].put(index.target(i), index.weight(i), -1);
+					in[index.target(i)].put(node, index.weight(i), -1);
+				}
+			}
+			order = new int[nodeCount];
+			Arrays.fill(order, Integer.MAX_VALUE);
+			contractedNeighbors = new int[nodeCount];
+			priority = new int[nodeCount];
+			rank = new int[nodeCount];
+			upTargets = new int[nodeCount][];
+			upWeights = new float[nodeCount][];
+			upMiddles = new int[nodeCount][];
+			downSources = new int[nodeCount][];
+			downWeights = new float[nodeCount][];
+			downMiddles = new int[nodeCount][];
+		}
+
+		private ContractionHierarchy run() {
+
+			int[] remaining = IntStream.range(0, nodeCount).toArray();
+			IntStream.of(remaining).parallel().forEach(node -> priority[node] = priority(node));
+
+			int next = 0;
+			while (remaining.length > 0) {
+				int[] batch = IntStream.of(remaining).parallel().filter(this::isLocalMinimum).toArray();
+				for (int i = 0; i < batch.length; i++)
+					order[batch[i]] = next + i;
+				Shortcuts[] shortcuts = new Shortcuts[batch.length];
+				IntStream.range(0, batch.length).parallel()
+						.forEach(i -> shortcuts[i] = shortcuts(batch[i], new Shortcuts(), WITNESS_LIMIT));
+
+				boolean[] touched = new boolean[nodeCount];
+				for (int i = 0; i < batch.length; i++) {
+					int node = batch[i];
+					rank[node] = next++;
+					remove(node, touched);
+					for (int s = 0; s < shortcuts[i].size; s++) {
+						int start = shortcuts[i].starts[s];
+						int end = shortcuts[i].ends[s];
+						out[start].put(end, shortcuts[i].weights[s], node);
+						in[end].put(start, shortcuts[i].weights[s], node);
+					}
+				}
+				remaining = IntStream.of(remaining).filter(node -> order[node] == Integer.MAX_VALUE).toArray();
+				IntStream.of(remaining).parallel().filter(node -> touched[node])
+						.forEach(node -> priority[node] = priority(node));
+			}
+			return assemble();
+		}
+
+		/**
+		 * Whether the node is less important than all of its remaining
+		 * neighbors, ties broken by a scrambled node id.
+		 */
+		private boolean isLocalMinimum(int node) {
+			for (int i = 0; i < out[node].size; i++)
+				if (!before(node, out[node].nodes[i]))
+					return false;
+			for (int i = 0; i < in[node].size; i++)
+				if (!before(node, in[node].nodes[i]))
+					return false;
+			return true;
+		}
+
+		private boolean before(int a, int b) {
+			if (priority[a] != priority[b])
+				return priority[a] < priority[b];
+			int ha = scramble(a);
+			int hb = scramble(b);
+			return (ha != hb ? ha < hb : a < b);
+		}
+
+		private static int scramble(int node) {
+			int h = node * 0x9E3779B9;
+			return h ^ (h >>> 16);
+		}
+
+		/**
+		 * Edge difference plus the number of contracted neighbors, which
+		 * spreads the contraction evenly over the graph.
+		 */
+		private int priority(int node) {
+			Shortcuts shortcuts = shortcuts(node, new Shortcuts(), ESTIMATE_LIMIT);
+			return shortcuts.size - out[node].size - in[node].size + contractedNeighbors[node];
+		}
+
+		/**
+		 * Adds the shortcuts needed to contract the node. For every incoming
+		 * neighbor a bounded witness search looks for paths to the outgoing
+		 * neighbors that avoid the node. Nodes of the current batch that are
+		 * contracted before this one are avoided as well, so the result is the
+		 * same as contracting the batch one node at a time: the batch is an
+		 * independent set, so contracting one of its nodes never changes the
+		 * neighbors of another.
+		 */
+		private Shortcuts shortcuts(int node, Shortcuts shortcuts, int witnessLimit) {
+
+			Adjacency incoming = in[node];
+			Adjacency outgoing = out[node];
+			if (incoming.size == 0 || outgoing.size == 0)
+				return shortcuts;
+
+			float maxOut = 0;
+			for (int j = 0; j < outgoing.size; j++)
+				maxOut = Math.max(maxOut, outgoing.weights[j]);
+
+			for (int i = 0; i < incoming.size; i++) {
+				int start = incoming.nodes[i];
+				float toNode = incoming.weights[i];
+				SearchSpace space = witnessSearch(start, node, outgoing, toNode + maxOut, witnessLimit);
+				for (int j = 0; j < outgoing.size; j++) {
+					int end = outgoing.nodes[j];
+					if (end == start)
+						continue;
+					float via = toNode + outgoing.weights[j];
+					if (space.distance(end) > via)
+						shortcuts.add(start, end, via);
+				}
+			}
+			return shortcuts;
+		}
+
+		private SearchSpace witnessSearch(int start, int avoid, Adjacency targets, float limit, int witnessLimit) {
+
+			SearchSpace space = SearchSpace.get(nodeCount);
+			IndexedMinHeap heap = space.heap();
+			space.setDistance(start, 0);
+			heap.insertOrDecrease(start, 0);
+			int settled = 0;
+			int open = targets.size;
+			while (!heap.isEmpty() && heap.peekKey() <= limit && settled++ < witnessLimit) {
+				int node = heap.poll();
+				if (targets.contains(node) && --open == 0)
+					break;
+				float cost = space.distance(node);
+				Adjacency edges = out[node];
+				for (int i = 0; i < edges.size; i++) {
+					int next = edges.nodes[i];
+					if (next == avoid || order[next] < order[avoid])
+						continue;
+					float total = cost + edges.weights[i];
+					if (total < space.distance(next)) {
+						space.setDistance(next, total);
+						heap.insertOrDecrease(next, total);
+					}
+				}
+			}
+			return space;
+		}
+
+		/**
+		 * Takes the node out of the remaining graph, keeping its edges as the
+		 * edges of the hierarchy. All its neighbors rank higher.
+		 */
+		private void remove(int node, boolean[] touched) {
+
+			Adjacency outgoing = out[node];
+			upTargets[node] = Arrays.copyOf(outgoing.nodes, outgoing.size);
+			upWeights[node] = Arrays.copyOf(outgoing.weights, outgoing.size);
+			upMiddles[node] = Arrays.copyOf(outgoing.middles, outgoing.size);
+			for (int i = 0; i < outgoing.size; i++) {
+				int end = outgoing.nodes[i];
+				in[end].remove(node);
+				contractedNeighbors[end]++;
+				touched[end] = true;
+			}
+
+			Adjacency incoming = in[node];
+			downSources[node] = Arrays.copyOf(incoming.nodes, incoming.size);
+			downWeights[node] = Arrays.copyOf(incoming.weights, incoming.size);
+			downMiddles[node] = Arrays.copyOf(incoming.middles, incoming.size);
+			for (int i = 0; i < incoming.size; i++) {
+				int start = incoming.nodes[i];
+				out[start].remove(node);
+				contractedNeighbors[start]++;
+				touched[start] = true;
+			}
+
+			out[node] = null;
+			in[node] = null;
+		}
+
+		private ContractionHierarchy assemble() {
+
+			int[] upOffsets = new int[nodeCount + 1];
+			int[] downOffsets = new int[nodeCount + 1];
+			for (int node = 0; node < nodeCount; node++) {
+				upOffsets[node + 1] = upOffsets[node] + upTargets[node].length;
+				downOffsets[node + 1] = downOffsets[node] + downSources[node].length;
+			}
+			int[] up = new int[upOffsets[nodeCount]];
+			float[] upWeight = new float[up.length];
+			int[] upMiddle = new int[up.length];
+			int[] down = new int[downOffsets[nodeCount]];
+			float[] downWeight = new float[down.length];
+			int[] downMiddle = new int[down.length];
+			for (int node = 0; node < nodeCount; node++) {
+				System.arraycopy(upTargets[node], 0, up, upOffsets[node], upTargets[node].length);
+				System.arraycopy(upWeights[node], 0, upWeight, upOffsets[node], upTargets[node].length);
+				System.arraycopy(upMiddles[node], 0, upMiddle, upOffsets[node], upTargets[node].length);
+				System.arraycopy(downSources[node], 0, down, downOffsets[node], downSources[node].length);
+				System.arraycopy(downWeights[node], 0, downWeight, downOffsets[node], downSources[node].length);
+				System.arraycopy(downMiddles[node], 0, downMiddle, downOffsets[node], downSources[node].length);
+			}
+			return new ContractionHierarchy(nodeCount, index.checksum(), rank, upOffsets, up, upWeight, upMiddle,
+					downOffsets, down, downWeight, downMiddle);
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package nl.tufa.graph;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Shortest and longest paths in a directed acyclic graph. The nodes are
+ * visited once in the topological order of the {@link GraphIndex}, from the
+ * source up to the target, and every reached node relaxes its outgoing edges:
+ * all paths into a node have been seen by the time it is visited. That takes
+ * O(V + E) without any priority queue, and allows negative weights.
+ * </p>
+ * <p>
+ * A longest path is the shortest path on the negated weights, the critical
+ * path of a schedule whose edges are task durations. Distances and
+ * predecessors are kept in the thread's {@link SearchSpace}, so the path can
+ * be read back like after a Dijkstra search.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Topological_sorting#Application_to_shortest_path_finding
+ * @see https://en.wikipedia.org/wiki/Longest_path_problem#Acyclic_graphs
+ */
+final class DagSearch {
+
+	private DagSearch() {
+	}
+
+	/**
+	 * Returns the cost of the cheapest, or with <code>longest</code> the most
+	 * expensive, path from <code>source</code> to <code>target</code>, or
+	 * <code>Float.POSITIVE_INFINITY</code> when the target cannot be reached.
+	 * The index must be acyclic.
+	 */
+	static float search(GraphIndex index, int source, int target, boolean longest) {
+
+		int[] order = index.topologicalOrder();
+		int[] rank = index.topologicalRank();
+		SearchSpace space = SearchSpace.get(index.getNodeCount());
+		space.setDistance(source, 0);
+		if (rank[target] < rank[source])
+			return Float.POSITIVE_INFINITY;
+
+		for (int position = rank[source], end = rank[target]; position < end; position++) {
+			int node = order[position];
+			if (!space.reached(node))
+				continue;
+			float cost = space.distance(node);
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+				int next = index.target(i);
+				float total = cost + (longest ? -index.weight(i) : index.weight(i));
+				if (total < space.distance(next))
+					space.setDistance(next, total, i);
+			}
+		}
+		float cost = space.distance(target);
+		// Subtracting from 0 leaves no negative zero.
+		return (longest && cost != Float.POSITIVE_INFINITY ? 0 - cost : cost);
+	}
+
+}
@@ -0,0 +1,263 @@
+package nl.tufa.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Parallel single source shortest paths by delta-stepping (Meyer and
+ * Sanders). Tentative distances are grouped in buckets of width delta. The
+ * nodes of the lowest non-empty bucket are expanded together: their light
+ * edges (weight at most delta) are relaxed in parallel, repeatedly, until the
+ * bucket stays empty, after which the heavy edges of all nodes taken from the
+ * bucket are relaxed in one more parallel step.
+ * </p>
+ * <p>
+ * Distances live in an atomic array holding the bits of the
+ * <code>float</code> values; for non-negative floats the order of the bits
+ * equals the order of the values, so an improvement is a lock-free atomic
+ * minimum. Edge weights must be non-negative.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Parallel_single-source_shortest_path_algorithm#Delta_stepping_algorithm
+ */
+final class DeltaStepping {
+
+	private static final int MAX_BUCKETS = 1 << 20;
+
+	private static final int INFINITY = Float.floatToIntBits(Float.POSITIVE_INFINITY);
+
+	private final GraphIndex index;
+	private final float delta;
+	private final AtomicIntegerArray distance;
+
+	// Nodes improved in the current step, each added once per step.
+	private final AtomicIntegerArray improvedStep;
+	private final int[] improved;
+	private final AtomicInteger improvedCount = new AtomicInteger();
+	private int step = 0;
+
+	// Cyclic buckets, nodes may be in several buckets, stale entries are
+	// skipped when a bucket is expanded.
+	private final int[][] buckets;
+	private final int[] bucketSizes;
+	private long pending = 0;
+	private final int[] takenMark;
+	private int takes = 0;
+	private final int[] expandedRound;
+
+	private DeltaStepping(GraphIndex index, float delta) {
+		this.index = index;
+		this.delta = delta;
+		int nodeCount = index.getNodeCount();
+		distance = new AtomicIntegerArray(nodeCount);
+		for (int node = 0; node < nodeCount; node++)
+			distance.set(node, INFINITY);
+		improvedStep = new AtomicIntegerArray(nodeCount);
+		improved = new int[nodeCount];
+		takenMark = new int[nodeCount];
+		expandedRound = new int[nodeCount];
+		Arrays.fill(expandedRound, -1);
+
+		// One spare bucket for rounding of the bucket numbers.
+		double count = Math.floor(maxFiniteWeight(index) / delta) + 3;
+		if (!(count <= MAX_BUCKETS))
+			throw new IllegalArgumentException("Delta too small for the range of the weights.");
+		buckets = new int[(int) count][];
+		bucketSizes = new int[(int) count];
+	}
+
+	/**
+	 * Largest finite edge weight. Edges of infinite weight never improve a
+	 * distance, so they are never put in a bucket.
+	 */
+	private static float maxFiniteWeight(GraphIndex index) {
+		float maxWeight = 0;
+		for (int i = 0; i < index.getEdgeCount(); i++)
+			if (index.weight(i) != Float.POSITIVE_INFINITY)
+				maxWeight = Math.max(maxWeight, index.weight(i));
+		return maxWeight;
+	}
+
+	/**
+	 * Default bucket width: the average finite edge weight, at least 1E-6 and
+	 * wide enough to keep the number of buckets bounded.
+	 */
+	static float defaultDelta(GraphIndex index) {
+		double sum = 0;
+		int count = 0;
+		for (int i = 0; i < index.getEdgeCount(); i++) {
+			if (index.weight(i) != Float.POSITIVE_INFINITY) {
+				sum += index.weight(i);
+				count++;
+			}
+		}
+		double average = (count == 0 ? 1 : sum / count);
+		return (float) Math.max(Math.max(average, 1E-6), 2.0 * maxFiniteWeight(index) / MAX_BUCKETS);
+	}
+
+	/**
+	 * Returns the cost from the source to every node, by node id, computed on
+	 * the given pool.
+	 */
+	static float[] search(GraphIndex index, int source, float delta, ForkJoinPool pool)
+			throws IllegalArgumentException, InterruptedException {
+		if (index.hasNegativeWeights())
+			throw new IllegalArgumentException("Delta-stepping requires non-negative weights.");
+		if (!(delta > 0))
+			throw new IllegalArgumentException("Delta must be positive.");
+		DeltaStepping search = new DeltaStepping(index, delta);
+		try {
+			pool.submit(() -> search.run(source)).get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+		float[] result = new float[index.getNodeCount()];
+		for (int node = 0; node < result.length; node++)
+			result[node] = Float.intBitsToFloat(search.distance.get(node));
+		return result;
+	}
+
+	private void run(int source) {
+
+		distance.set(source, 0);
+		add(source, 0);
+		int[] expanded = new int[index.getNodeCount()];
+		long current = 0;
+		int round = 0;
+		while (pending > 0) {
+			while (bucketSizes[slot(current)] == 0)
+				current++;
+
+			// Light edges, until no node falls back into the current bucket.
+			int expandedCount = 0;
+			while (bucketSizes[slot(current)] > 0) {
+				int[] frontier = take(current, round, expanded, expandedCount);
+				expandedCount += frontier.length;
+				relax(frontier, true);
+			}
+
+			// Heavy edges of every node taken from the bucket.
+			relax(Arrays.copyOf(expanded, expandedCount), false);
+			round++;
+		}
+	}
+
+	/**
+	 * Empties the bucket, returning the nodes that still belong to it and
+	 * recording the ones not taken from it before in this round.
+	 */
+	private int[] take(long bucket, int round, int[] expanded, int expandedCount) {
+		int slot = slot(bucket);
+		int[] entries = buckets[slot];
+		int size = bucketSizes[slot];
+		bucketSizes[slot] = 0;
+		pending -= size;
+
+		int count = 0;
+		int[] frontier = new int[size];
+		takes++;
+		for (int i = 0; i < size; i++) {
+			int node = entries[i];
+			if (bucket(distance.get(node)) != bucket || takenMark[node] == takes)
+				continue;
+			takenMark[node] = takes;
+			frontier[count++] = node;
+		}
+		for (int i = 0; i < count; i++) {
+			int node = frontier[i];
+			if (expandedRound[node] != round)
+				expanded[expandedCount++] = node;
+			expandedRound[node] = round;
+		}
+		return Arrays.copyOf(frontier, count);
+	}
+
+	private void relax(int[] nodes, boolean light) {
+		step++;
+		improvedCount.set(0);
+		IntStream.of(nodes).parallel().forEach(node -> {
+			float cost = Float.intBitsToFloat(distance.get(node));
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+				float weight = index.weight(i);
+				if ((weight <= delta) != light)
+					continue;
+				int next = index.target(i);
+				if (lower(next, Float.floatToIntBits(cost + weight)) && improvedStep.getAndSet(next, step) != step)
+					improved[improvedCount.getAndIncrement()] = next;
+			}
+		});
+		for (int i = 0, count = improvedCount.get(); i < count; i++) {
+			int node = improved[i];
+			add(node, bucket(distance.get(node)));
+		}
+	}
+
+	/**
+	 * Atomic minimum on the distance of the node.
+	 */
+	private boolean lower(int node, int bits) {
+		int current = distance.get(node);
+		while (bits < current) {
+			if (distance.compareAndSet(node, current, bits))
+				return true;
+			current = distance.get(node);
+		}
+		return false;
+	}
+
+	private long bucket(int bits) {
+		return (long) (Float.intBitsToFloat(bits) / delta);
+	}
+
+	private int slot(long bucket) {
+		return (int) (bucket % buckets.length);
+	}
+
+	private void add(int node, long bucket) {
+		int slot = slot(bucket);
+		int[] entries = buckets[slot];
+		if (entries == null)
+			entries = buckets[slot] = new int[16];
+		else if (bucketSizes[slot] == entries.length)
+			entries = buckets[slot] = Arrays.copyOf(entries, entries.length * 2);
+		entries[bucketSizes[slot]++] = node;
+		pending++;
+	}
+
+}
@@ -0,0 +1,232 @@
+package nl.tufa.graph;
+
+import java.util.Arrays;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Dijkstra's shortest path algorithm on the dense integer node ids of a
+ * {@link GraphIndex}.
+ * </p>
+ * <p>
+ * Tentative distances are kept in the primitive arrays of the thread's
+ * {@link SearchSpace} and the frontier in an {@link IndexedMinHeap}, so every
+ * node is settled exactly once and the search runs in O((V + E) log V). The
+ * search stops as soon as the target node is settled. Edge weights are
+ * expected to be non-negative.
+ * </p>
+ * <p>
+ * When all weights are small integers the heap is replaced by the buckets of
+ * a {@link BucketQueue} (Dial's algorithm), which takes O(V + E + D) for a
+ * largest distance D.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Dijkstra%27s_algorithm
+ */
+final class DijkstraSearch {
+
+	/**
+	 * Largest integer weight for which a search uses a {@link BucketQueue}
+	 * instead of the heap.
+	 */
+	static final int MAX_BUCKET_WEIGHT = 1 << 12;
+
+	private static final float EXACT = 1 << 24;
+
+	private DijkstraSearch() {
+	}
+
+	/**
+	 * Returns the cost of the cheapest path from <code>source</code> to
+	 * <code>target</code>, or <code>Float.POSITIVE_INFINITY</code> when the
+	 * target cannot be reached.
+	 */
+	static float search(GraphIndex index, int source, int target) {
+
+		int maxWeight = index.maxIntegerWeight();
+		if (maxWeight >= 0 && maxWeight <= MAX_BUCKET_WEIGHT) {
+			float cost = dial(index, source, target, maxWeight);
+			if (!Float.isNaN(cost))
+				return cost;
+		}
+
+		SearchSpace space = SearchSpace.get(index.getNodeCount());
+		IndexedMinHeap heap = space.heap();
+
+		space.setDistance(source, 0);
+		heap.insertOrDecrease(source, 0);
+		while (!heap.isEmpty()) {
+			int node = heap.poll();
+			if (node == target)
+				return space.distance(node);
+
+			float cost = space.distance(node);
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+				int next = index.target(i);
+				float total = cost + index.weight(i);
+				if (total < space.distance(next)) {
+					space.setDistance(next, total, i);
+					heap.insertOrDecrease(next, total);
+				}
+			}
+		}
+		return Float.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Dial's algorithm: {@link #search(GraphIndex, int, int)} on a bucket
+	 * queue for integer weights of at most <code>maxWeight</code>. Returns
+	 * <code>Float.NaN</code> when a distance grows beyond the integers a float
+	 * holds exactly, leaving the search to the heap.
+	 */
+	private static float dial(GraphIndex index, int source, int target, int maxWeight) {
+
+		SearchSpace space = SearchSpace.get(index.getNodeCount());
+		BucketQueue queue = space.buckets(maxWeight + 1);
+
+		space.setDistance(source, 0);
+		queue.insertOrDecrease(source, 0);
+		while (!queue.isEmpty()) {
+			int node = queue.poll();
+			if (node == target)
+				return space.distance(node);
+
+			float cost = space.distance(node);
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+				int next = index.target(i);
+				float total = cost + index.weight(i);
+				if (total < space.distance(next)) {
+					if (total > EXACT)
+						return Float.NaN;
+					space.setDistance(next, total, i);
+					queue.insertOrDecrease(next, (int) total);
+				}
+			}
+		}
+		return Float.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns the cost of the cheapest path from <code>source</code> to every
+	 * node, indexed by node id, or to <code>source</code> from every node when
+	 * <code>backward</code> is set. Unreachable nodes get
+	 * <code>Float.POSITIVE_INFINITY</code>.
+	 */
+	static float[] all(GraphIndex index, int source, boolean backward) {
+
+		float[] distance = new float[index.getNodeCount()];
+		Arrays.fill(distance, Float.POSITIVE_INFINITY);
+		IndexedMinHeap heap = SearchSpace.get(index.getNodeCount()).heap();
+
+		distance[source] = 0;
+		heap.insertOrDecrease(source, 0);
+		while (!heap.isEmpty()) {
+			int node = heap.poll();
+			float cost = distance[node];
+			int first = (backward ? index.firstInEdge(node) : index.firstEdge(node));
+			int last = (backward ? index.endInEdge(node) : index.endEdge(node));
+			for (int i = first; i < last; i++) {
+				int next = (backward ? index.source(i) : index.target(i));
+				float total = cost + (backward ? index.inWeight(i) : index.weight(i));
+				if (total < distance[next]) {
+					distance[next] = total;
+					heap.insertOrDecrease(next, total);
+				}
+			}
+		}
+		return distance;
+	}
+
+	/**
+	 * Returns the shortest path tree of <code>source</code>: the cost of the
+	 * cheapest path to every node and the last edge on that path.
+	 */
+	static ShortestPathTree tree(GraphIndex index, int source) {
+
+		float[] distance = new float[index.getNodeCount()];
+		int[] predecessor = new int[index.getNodeCount()];
+		Arrays.fill(distance, Float.POSITIVE_INFINITY);
+		Arrays.fill(predecessor, -1);
+		IndexedMinHeap heap = SearchSpace.get(index.getNodeCount()).heap();
+
+		distance[source] = 0;
+		heap.insertOrDecrease(source, 0);
+		while (!heap.isEmpty()) {
+			int node = heap.poll();
+			float cost = distance[node];
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+				int next = index.target(i);
+				float total = cost + index.weight(i);
+				if (total < distance[next]) {
+					distance[next] = total;
+					predecessor[next] = i;
+					heap.insertOrDecrease(next, total);
+				}
+			}
+		}
+		return new ShortestPathTree(index, source, distance, predecessor);
+	}
+
+	/**
+	 * Returns the cost of the cheapest path from <code>source</code> to every
+	 * node, like {@link #all(GraphIndex, int, boolean)}, searching on the
+	 * weights reduced by the potentials of Johnson's algorithm so negative
+	 * weights are allowed.
+	 */
+	static float[] all(GraphIndex index, int source, float[] potential) {
+
+		float[] distance = new float[index.getNodeCount()];
+		Arrays.fill(distance, Float.POSITIVE_INFINITY);
+		IndexedMinHeap heap = SearchSpace.get(index.getNodeCount()).heap();
+
+		distance[source] = 0;
+		heap.insertOrDecrease(source, 0);
+		while (!heap.isEmpty()) {
+			int node = heap.poll();
+			float cost = distance[node];
+			float shift = potential[node];
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+				int next = index.target(i);
+				// Rounding may leave a reduced weight just below zero.
+				float total = cost + Math.max(0, index.weight(i) + shift - potential[next]);
+				if (total < distance[next]) {
+					distance[next] = total;
+					heap.insertOrDecrease(next, total);
+				}
+			}
+		}
+		for (int node = 0; node < distance.length; node++)
+			if (distance[node] != Float.POSITIVE_INFINITY)
+				distance[node] += potential[node] - potential[source];
+		return distance;
+	}
+
+}
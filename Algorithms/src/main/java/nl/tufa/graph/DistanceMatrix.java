@@ -0,0 +1,417 @@
+package nl.tufa.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * All pairs shortest path costs, computed by the blocked Floyd-Warshall
+ * algorithm. The matrix is cut in square tiles; for every tile on the
+ * diagonal, in turn, the diagonal tile itself is closed first, then the tiles
+ * in its row and column in parallel, and finally all other tiles in parallel.
+ * Each step works on a few tiles copied into small arrays that fit in the
+ * cache, in O(V<sup>3</sup>) time overall.
+ * </p>
+ * <p>
+ * The costs are kept in one flat row major matrix, either a
+ * <code>float[]</code> on the heap or, for matrices too large for the heap or
+ * for an array, direct buffers of at most 1 GB outside of it, with constant
+ * time lookups by id or tag. Direct memory is limited by
+ * <code>-XX:MaxDirectMemorySize</code>, which defaults to the maximum heap
+ * size; a matrix that does not fit is refused with an
+ * {@link IllegalArgumentException}.
+ * Negative weights are allowed; a negative cycle is reported by a
+ * {@link NegativeCycleException}.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Floyd%E2%80%93Warshall_algorithm
+ */
+public final class DistanceMatrix {
+
+	private static final int TILE = 64;
+
+	// The largest square that fits in an array, and a bound that keeps the
+	// number of tiles within an int.
+	private static final int MAX_HEAP_NODES = 46340;
+	private static final int MAX_OFF_HEAP_NODES = 1 << 20;
+
+	private final GraphIndex index;
+	private final int nodeCount;
+	private final float[] heap;
+	private final BufferArray buffer;
+
+	private DistanceMatrix(GraphIndex index, boolean offHeap) throws IllegalArgumentException {
+		this.index = index;
+		nodeCount = index.getNodeCount();
+		long size = (long) nodeCount * nodeCount;
+		if (offHeap) {
+			heap = null;
+			try {
+				buffer = BufferArray.allocate(size);
+			} catch (OutOfMemoryError e) {
+				throw new IllegalArgumentException("Not enough direct memory for a distance matrix of " + nodeCount
+						+ " nodes, see -XX:MaxDirectMemorySize.", e);
+			}
+		} else {
+			heap = new float[(int) size];
+			buffer = null;
+		}
+	}
+
+	/**
+	 * Computes the matrix on the common pool, outside of the heap when it
+	 * would take more than half of the heap still available or does not fit
+	 * in an array.
+	 */
+	public static DistanceMatrix compute(Graph graph)
+			throws IllegalArgumentException, NegativeCycleException, InterruptedException {
+		long nodeCount = graph.getIndex().getNodeCount();
+		Runtime runtime = Runtime.getRuntime();
+		long available = runtime.maxMemory() - runtime.totalMemory() + runtime.freeMemory();
+		boolean offHeap = nodeCount > MAX_HEAP_NODES || nodeCount * nodeCount * Float.BYTES > available / 2;
+		return compute(graph, offHeap, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Computes the matrix on the current index of the graph using the given
+	 * pool.
+	 */
+	public static DistanceMatrix compute(Graph graph, boolean offHeap, ForkJoinPool pool)
+			throws IllegalArgumentException, NegativeCycleException, InterruptedException {
+
+		if (pool == null)
+			throw new NullPointerException();
+		GraphIndex index = graph.getIndex();
+		if (index.getNodeCount() > (offHeap ? MAX_OFF_HEAP_NODES : MAX_HEAP_NODES))
+			throw new IllegalArgumentException("Too many nodes for a distance matrix.");
+
+		DistanceMatrix matrix = new DistanceMatrix(index, offHeap);
+		matrix.initialise();
+		try {
+			pool.submit(matrix::close).get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+
+		// A negative cycle shows as a negative distance from a node to itself;
+		// the cycle lies in the strongly connected component of that node.
+		StronglyConnectedComponents components = index.getComponents();
+		boolean[] checked = new boolean[components.getCount()];
+		for (int node = 0; node < matrix.nodeCount; node++) {
+			int component = components.getComponent(node);
+			if (matrix.distance(node, node) < 0 && !checked[component]) {
+				checked[component] = true;
+				List<GraphNode> cycle = negativeCycle(index, components, component);
+				if (cycle != null)
+					throw new NegativeCycleException(cycle);
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * Returns a negative cycle within the component, or <code>null</code>
+	 * when its negative distances only came from rounding around a cycle of
+	 * weight 0. Floyd-Warshall runs again on the component alone, in double
+	 * precision and with the successor of every entry, and stops at the first
+	 * pivot <code>k</code> that closes a negative walk from some node
+	 * <code>i</code> through <code>k</code> back to <code>i</code>. Until then
+	 * no negative cycle has been used, so both halves of the walk are simple
+	 * paths that the successors trace, and the walk splits into simple cycles
+	 * of which at least one is negative.
+	 */
+	private static List<GraphNode> negativeCycle(GraphIndex index, StronglyConnectedComponents components,
+			int component) throws IllegalArgumentException {
+
+		int[] local = new int[index.getNodeCount()];
+		Arrays.fill(local, -1);
+		int size = 0;
+		for (int node = 0; node < local.length; node++)
+			if (components.getComponent(node) == component)
+				local[node] = size++;
+		int[] members = new int[size];
+		for (int node = 0; node < local.length; node++)
+			if (local[node] >= 0)
+				members[local[node]] = node;
+		if (size > MAX_HEAP_NODES)
+			throw new IllegalArgumentException("Negative cycle in a component too large to trace.");
+
+		int n = size;
+		double[] cost = new double[n * n];
+		int[] next = new int[n * n];
+		Arrays.fill(cost, Double.POSITIVE_INFINITY);
+		for (int i = 0; i < n; i++) {
+			cost[i * n + i] = 0;
+			next[i * n + i] = i;
+			for (int e = index.firstEdge(members[i]), last = index.endEdge(members[i]); e < last; e++) {
+				int j = local[index.target(e)];
+				if (j >= 0 && index.weight(e) < cost[i * n + j]) {
+					cost[i * n + j] = index.weight(e);
+					next[i * n + j] = j;
+				}
+			}
+		}
+
+		for (int k = 0; k < n; k++) {
+			for (int i = 0; i < n; i++)
+				if (cost[i * n + k] + cost[k * n + i] < 0)
+					return split(index, members, walk(next, n, i, k));
+			int pivot = k;
+			IntStream.range(0, n).parallel().forEach(i -> {
+				double ik = cost[i * n + pivot];
+				if (ik == Double.POSITIVE_INFINITY)
+					return;
+				for (int j = 0; j < n; j++) {
+					double total = ik + cost[pivot * n + j];
+					if (total < cost[i * n + j]) {
+						cost[i * n + j] = total;
+						next[i * n + j] = next[i * n + pivot];
+					}
+				}
+			});
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the local ids of the closed walk from i through k back to i,
+	 * following the successors, with i at both ends.
+	 */
+	private static int[] walk(int[] next, int n, int i, int k) {
+		int[] walk = new int[2 * n + 1];
+		int length = 0;
+		walk[length++] = i;
+		for (int node = i; node != k; node = next[node * n + k])
+			walk[length++] = next[node * n + k];
+		for (int node = k; node != i; node = next[node * n + i])
+			walk[length++] = next[node * n + i];
+		return Arrays.copyOf(walk, length);
+	}
+
+	/**
+	 * Splits a closed walk into simple cycles, removing each cycle as soon as
+	 * a node repeats, and returns the most negative one.
+	 */
+	private static List<GraphNode> split(GraphIndex index, int[] members, int[] walk) {
+
+		int[] stack = new int[walk.length];
+		int[] position = new int[members.length];
+		Arrays.fill(position, -1);
+		int top = 0;
+		double best = 0;
+		List<GraphNode> result = null;
+		for (int node : walk) {
+			int p = position[node];
+			if (p < 0) {
+				position[node] = top;
+				stack[top++] = node;
+				continue;
+			}
+			double weight = 0;
+			for (int c = p; c < top; c++)
+				weight += cheapest(index, members[stack[c]], members[c + 1 < top ? stack[c + 1] : node]);
+			if (weight < best) {
+				best = weight;
+				result = new ArrayList<GraphNode>(top - p);
+				for (int c = p; c < top; c++)
+					result.add(index.getNode(members[stack[c]]));
+			}
+			for (int c = p + 1; c < top; c++)
+				position[stack[c]] = -1;
+			top = p + 1;
+		}
+		return result;
+	}
+
+	private static float cheapest(GraphIndex index, int from, int to) {
+		float weight = Float.POSITIVE_INFINITY;
+		for (int e = index.firstEdge(from), last = index.endEdge(from); e < last; e++)
+			if (index.target(e) == to)
+				weight = Math.min(weight, index.weight(e));
+		return weight;
+	}
+
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	public boolean isOffHeap() {
+		return buffer != null;
+	}
+
+	/**
+	 * Returns the cost of the cheapest path between the nodes with the given
+	 * ids, or <code>Float.POSITIVE_INFINITY</code> when there is no path.
+	 */
+	public float distance(int from, int to) throws IndexOutOfBoundsException {
+		if (from < 0 || from >= nodeCount || to < 0 || to >= nodeCount)
+			throw new IndexOutOfBoundsException();
+		return get((long) from * nodeCount + to);
+	}
+
+	/**
+	 * Returns the cost of the cheapest path between the nodes with the given
+	 * tags, or <code>Float.POSITIVE_INFINITY</code> when there is no path.
+	 */
+	public float distance(String from, String to) throws IllegalArgumentException {
+		int start = index.getNodeId(from);
+		int end = index.getNodeId(to);
+		if (start < 0 || end < 0)
+			throw new IllegalArgumentException("Node not part of the graph.");
+		return distance(start, end);
+	}
+
+	private void initialise() {
+		for (int from = 0; from < nodeCount; from++) {
+			long row = (long) from * nodeCount;
+			for (int to = 0; to < nodeCount; to++)
+				set(row + to, from == to ? 0 : Float.POSITIVE_INFINITY);
+			for (int i = index.firstEdge(from), last = index.endEdge(from); i < last; i++) {
+				long position = row + index.target(i);
+				set(position, Math.min(get(position), index.weight(i)));
+			}
+		}
+	}
+
+	private void close() {
+
+		int tiles = (nodeCount + TILE - 1) / TILE;
+		for (int k = 0; k < tiles; k++) {
+			int pivot = k;
+
+			float[] diagonal = load(pivot, pivot);
+			relax(diagonal, diagonal, diagonal);
+			store(diagonal, pivot, pivot);
+
+			// Tiles of the pivot row at 0..tiles, of the pivot column after.
+			float[][] cross = new float[2 * tiles][];
+			IntStream.range(0, 2 * tiles).parallel().forEach(t -> {
+				if (t % tiles == pivot)
+					return;
+				boolean row = t < tiles;
+				float[] tile = (row ? load(pivot, t) : load(t - tiles, pivot));
+				if (row)
+					relax(tile, diagonal, tile);
+				else
+					relax(tile, tile, diagonal);
+				cross[t] = tile;
+				if (row)
+					store(tile, pivot, t);
+				else
+					store(tile, t - tiles, pivot);
+			});
+
+			IntStream.range(0, tiles * tiles).parallel().forEach(t -> {
+				int i = t / tiles;
+				int j = t % tiles;
+				if (i == pivot || j == pivot)
+					return;
+				float[] tile = load(i, j);
+				relax(tile, cross[tiles + i], cross[j]);
+				store(tile, i, j);
+			});
+		}
+	}
+
+	/**
+	 * Lowers the costs of tile c through the costs of tiles a and b:
+	 * <code>c[i][j] = min(c[i][j], a[i][k] + b[k][j])</code> with k in the
+	 * outer loop, so the tiles may be the same array.
+	 */
+	private static void relax(float[] c, float[] a, float[] b) {
+		for (int k = 0; k < TILE; k++) {
+			for (int i = 0; i < TILE; i++) {
+				float ik = a[i * TILE + k];
+				if (ik == Float.POSITIVE_INFINITY)
+					continue;
+				int row = i * TILE;
+				int pivot = k * TILE;
+				for (int j = 0; j < TILE; j++) {
+					float cost = ik + b[pivot + j];
+					if (cost < c[row + j])
+						c[row + j] = cost;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copies a tile out of the matrix, padding beyond the last node with
+	 * infinity.
+	 */
+	private float[] load(int tileRow, int tileColumn) {
+		float[] tile = new float[TILE * TILE];
+		Arrays.fill(tile, Float.POSITIVE_INFINITY);
+		int rows = Math.min(TILE, nodeCount - tileRow * TILE);
+		int columns = Math.min(TILE, nodeCount - tileColumn * TILE);
+		for (int i = 0; i < rows; i++) {
+			long position = (long) (tileRow * TILE + i) * nodeCount + tileColumn * TILE;
+			if (heap != null)
+				System.arraycopy(heap, (int) position, tile, i * TILE, columns);
+			else
+				for (int j = 0; j < columns; j++)
+					tile[i * TILE + j] = buffer.getFloat(position + j);
+		}
+		return tile;
+	}
+
+	private void store(float[] tile, int tileRow, int tileColumn) {
+		int rows = Math.min(TILE, nodeCount - tileRow * TILE);
+		int columns = Math.min(TILE, nodeCount - tileColumn * TILE);
+		for (int i = 0; i < rows; i++) {
+			long position = (long) (tileRow * TILE + i) * nodeCount + tileColumn * TILE;
+			if (heap != null)
+				System.arraycopy(tile, i * TILE, heap, (int) position, columns);
+			else
+				for (int j = 0; j < columns; j++)
+					buffer.setFloat(position + j, tile[i * TILE + j]);
+		}
+	}
+
+	private float get(long position) {
+		return (heap != null ? heap[(int) position] : buffer.getFloat(position));
+	}
+
+	private void set(long position, float cost) {
+		if (heap != null)
+			heap[(int) position] = cost;
+		else
+			buffer.setFloat(position, cost);
+	}
+
+}
@@ -0,0 +1,310 @@
+package nl.tufa.graph;
+
+import java.util.Arrays;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Shortest path tree from a fixed start node that is repaired, instead of
+ * recomputed, when edge weights of the graph change, in the style of
+ * Ramalingam and Reps. The tree registers itself with its graph and follows
+ * every {@link GraphEdge#setWeight(Float)}:
+ * </p>
+ * <ul>
+ * <li>When a weight goes down and the edge now offers a cheaper path to its
+ * end node, a Dijkstra search from that node lowers the costs of the nodes
+ * that benefit, and only those.</li>
+ * <li>When a weight goes up on an edge of the tree, only the subtree below
+ * the edge can get more expensive. Its nodes are detached, each gets the
+ * cheapest cost offered by its neighbors outside of the subtree, and a
+ * Dijkstra search inside the subtree settles the rest. Edges outside of the
+ * tree do not matter.</li>
+ * </ul>
+ * <p>
+ * The tree keeps its own copy of the adjacency arrays with current weights.
+ * Adding nodes or edges, or moving an edge, changes the structure of the
+ * graph; the tree is then rebuilt from scratch on the next query. Weights
+ * must be non-negative. Call {@link #close()} to stop following the graph.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Dynamic_problem_(algorithms)
+ */
+public final class DynamicShortestPathTree implements AutoCloseable {
+
+	private final Graph graph;
+	private final GraphNode start;
+
+	// Adjacency in the layout of the graph index, with current weights.
+	private GraphIndex index;
+	private int source;
+	private float[] weights;
+	private int[] inOffsets;
+	private int[] inEdges;
+
+	private float[] distance;
+	private int[] predecessor;
+	private long version = -1;
+	private int repaired = 0;
+
+	// Scratch space of a repair.
+	private IndexedMinHeap heap;
+	private int[] affected;
+	private int[] mark;
+	private int round = 0;
+
+	private DynamicShortestPathTree(Graph graph, GraphNode start) {
+		this.graph = graph;
+		this.start = start;
+	}
+
+	/**
+	 * Builds the tree of the start node and starts following the weight
+	 * changes of the graph.
+	 */
+	public static DynamicShortestPathTree build(Graph graph, GraphNode start) throws IllegalArgumentException {
+		if (graph == null || start == null)
+			throw new NullPointerException();
+		DynamicShortestPathTree tree = new DynamicShortestPathTree(graph, start);
+		tree.rebuild();
+		graph.addWeightListener(tree);
+		return tree;
+	}
+
+	/**
+	 * Stops following the graph.
+	 */
+	@Override
+	public void close() {
+		graph.removeWeightListener(this);
+	}
+
+	public GraphNode getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the cost of the cheapest path to the node, or <code>null</code>
+	 * when there is no such path.
+	 */
+	public synchronized Float getCost(GraphNode node) throws IllegalArgumentException {
+		current();
+		int id = index.getNodeId(node);
+		return (id < 0 || distance[id] == Float.POSITIVE_INFINITY ? null : distance[id]);
+	}
+
+	/**
+	 * Returns the cheapest path to the node, or <code>null</code> when there
+	 * is no such path.
+	 */
+	public synchronized ShortestPath getPath(GraphNode node) throws IllegalArgumentException {
+		current();
+		return new ShortestPathTree(index, source, distance, predecessor).getPath(node);
+	}
+
+	/**
+	 * Number of nodes whose cost was recomputed by the last repair.
+	 */
+	public synchronized int getRepairedCount() {
+		return repaired;
+	}
+
+	/**
+	 * Called by the graph after the weight of one of its edges changed from
+	 * <code>oldWeight</code>, with the version of the graph before the
+	 * change.
+	 */
+	synchronized void weightChanged(GraphEdge edge, float oldWeight, long previousVersion) {
+
+		if (version != previousVersion)
+			return;
+		int edgeId = position(edge);
+		float newWeight = edge.getWeightValue();
+		if (edgeId < 0 || Float.isNaN(oldWeight) || !(newWeight >= 0)) {
+			// Not something a repair can follow.
+			version = -1;
+			return;
+		}
+
+		weights[edgeId] = newWeight;
+		if (newWeight < oldWeight)
+			decreased(edgeId);
+		else if (newWeight > oldWeight && predecessor[index.target(edgeId)] == edgeId)
+			increased(index.target(edgeId));
+		else
+			repaired = 0;
+		version = graph.getVersion();
+	}
+
+	/**
+	 * Makes sure the tree belongs to the current version of the graph.
+	 */
+	private void current() throws IllegalArgumentException {
+		if (version != graph.getVersion())
+			rebuild();
+	}
+
+	private void rebuild() throws IllegalArgumentException {
+
+		version = graph.getVersion();
+		index = graph.getIndex();
+		if (index.hasNegativeWeights())
+			throw new IllegalArgumentException("A dynamic shortest path tree requires non-negative weights.");
+		source = index.getNodeId(start);
+		if (source < 0)
+			throw new IllegalArgumentException("Start node not in graph.");
+
+		int nodeCount = index.getNodeCount();
+		weights = new float[index.getEdgeCount()];
+		inOffsets = new int[nodeCount + 1];
+		inEdges = new int[index.getEdgeCount()];
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = index.weight(i);
+			inOffsets[index.target(i) + 1]++;
+		}
+		for (int node = 0; node < nodeCount; node++)
+			inOffsets[node + 1] += inOffsets[node];
+		int[] fill = Arrays.copyOf(inOffsets, nodeCount);
+		for (int i = 0; i < weights.length; i++)
+			inEdges[fill[index.target(i)]++] = i;
+
+		distance = new float[nodeCount];
+		predecessor = new int[nodeCount];
+		Arrays.fill(distance, Float.POSITIVE_INFINITY);
+		Arrays.fill(predecessor, -1);
+		heap = new IndexedMinHeap(nodeCount);
+		affected = new int[nodeCount];
+		mark = new int[nodeCount];
+		round = 0;
+
+		distance[source] = 0;
+		heap.insertOrDecrease(source, 0);
+		repaired = settle(false);
+	}
+
+	private void decreased(int edgeId) {
+		int target = index.target(edgeId);
+		float total = distance[index.start(edgeId)] + weights[edgeId];
+		if (total < distance[target]) {
+			distance[target] = total;
+			predecessor[target] = edgeId;
+			heap.insertOrDecrease(target, total);
+			repaired = settle(false);
+		} else {
+			repaired = 0;
+		}
+	}
+
+	/**
+	 * Repairs the subtree below the node after the edge to it got more
+	 * expensive.
+	 */
+	private void increased(int top) {
+
+		// Collect the subtree, marked with the current round.
+		round++;
+		int count = 0;
+		affected[count++] = top;
+		mark[top] = round;
+		for (int i = 0; i < count; i++) {
+			int node = affected[i];
+			for (int e = index.firstEdge(node), last = index.endEdge(node); e < last; e++) {
+				int child = index.target(e);
+				if (predecessor[child] == e && mark[child] != round) {
+					mark[child] = round;
+					affected[count++] = child;
+				}
+			}
+		}
+
+		// Cheapest way into every node of the subtree from outside of it.
+		for (int i = 0; i < count; i++) {
+			int node = affected[i];
+			distance[node] = Float.POSITIVE_INFINITY;
+			predecessor[node] = -1;
+		}
+		for (int i = 0; i < count; i++) {
+			int node = affected[i];
+			for (int j = inOffsets[node]; j < inOffsets[node + 1]; j++) {
+				int e = inEdges[j];
+				int from = index.start(e);
+				if (mark[from] == round)
+					continue;
+				float total = distance[from] + weights[e];
+				if (total < distance[node]) {
+					distance[node] = total;
+					predecessor[node] = e;
+				}
+			}
+			if (distance[node] != Float.POSITIVE_INFINITY)
+				heap.insertOrDecrease(node, distance[node]);
+		}
+		settle(true);
+		repaired = count;
+	}
+
+	/**
+	 * Dijkstra from the nodes in the heap, only nodes of the current round
+	 * when <code>within</code> is set. Returns the number of settled nodes.
+	 */
+	private int settle(boolean within) {
+		int settled = 0;
+		while (!heap.isEmpty()) {
+			int node = heap.poll();
+			settled++;
+			float cost = distance[node];
+			for (int e = index.firstEdge(node), last = index.endEdge(node); e < last; e++) {
+				int next = index.target(e);
+				if (within && mark[next] != round)
+					continue;
+				float total = cost + weights[e];
+				if (total < distance[next]) {
+					distance[next] = total;
+					predecessor[next] = e;
+					heap.insertOrDecrease(next, total);
+				}
+			}
+		}
+		return settled;
+	}
+
+	/**
+	 * Position of the edge in the adjacency arrays, or -1.
+	 */
+	private int position(GraphEdge edge) {
+		if (edge.startId < 0 || edge.startId >= index.getNodeCount())
+			return -1;
+		for (int e = index.firstEdge(edge.startId), last = index.endEdge(edge.startId); e < last; e++)
+			if (index.getEdge(e) == edge)
+				return e;
+		return -1;
+	}
+
+}
@@ -0,0 +1,457 @@
+package nl.tufa.graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Loads a {@link Graph} from a file with one edge per line,
+ * <code>startTag endTag weight</code> separated by spaces or tabs, or from the
+ * equivalent binary edge list written by
+ * {@link #writeBinary(Graph, OutputStream)}. Blank lines and lines starting
+ * with <code>#</code> are skipped.
+ * </p>
+ * <p>
+ * The file is memory mapped in regions of up to 1 GB and parsed straight
+ * from the mapped bytes: tags are interned on their bytes, so a
+ * <code>String</code> is only created once for every distinct node, and
+ * weights are parsed without an intermediate string. Edges are collected in
+ * primitive arrays, checked for duplicates on a primitive hash set, and the
+ * {@link GraphIndex} of the graph is built from those arrays directly.
+ * </p>
+ * <b>Example</b>
+ * 
+ * <pre>
+ * Graph graph = EdgeListLoader.load(Paths.get("roads.txt"));
+ * </pre>
+ * 
+ * @author M.C.Slooff
+ */
+public final class EdgeListLoader {
+
+	/**
+	 * Layout of an edge list file.
+	 */
+	public enum Format {
+
+		/**
+		 * Lines of <code>startTag endTag weight</code> in UTF-8.
+		 */
+		TEXT,
+
+		/**
+		 * The magic number, followed by records of the length and UTF-8 bytes
+		 * of the start tag, the same for the end tag, and the weight as a
+		 * float, all big endian.
+		 */
+		BINARY
+	}
+
+	static final int MAGIC = 0x45444731;
+
+	private static final long REGION = 1L << 30;
+
+	private static final double[] POWERS = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+			1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	// Tags by id as bytes in one arena, with an open addressing table of ids.
+	private byte[] arena = new byte[1 << 16];
+	private int arenaSize = 0;
+	private int[] tagOffsets = new int[1024];
+	private int[] tagLengths = new int[1024];
+	private int[] tagHashes = new int[1024];
+	private int tagCount = 0;
+	private int[] slots = new int[2048];
+
+	// Edges, with an open addressing set of their (start, end) keys.
+	private int[] startIds = new int[1024];
+	private int[] endIds = new int[1024];
+	private float[] weights = new float[1024];
+	private int edgeCount = 0;
+	private long[] keys = new long[2048];
+
+	private long line = 0;
+
+	private EdgeListLoader() {
+	}
+
+	/**
+	 * Loads a binary edge list when the file starts with its magic number,
+	 * and a text edge list otherwise.
+	 */
+	public static Graph load(Path path) throws IOException, DuplicateEdgeException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer head = ByteBuffer.allocate(4);
+			while (head.hasRemaining() && channel.read(head, head.position()) > 0)
+				;
+			boolean binary = !head.hasRemaining() && head.getInt(0) == MAGIC;
+			return load(path, binary ? Format.BINARY : Format.TEXT);
+		}
+	}
+
+	public static Graph load(Path path, Format format) throws IOException, DuplicateEdgeException {
+
+		if (format == null)
+			throw new NullPointerException();
+		EdgeListLoader loader = new EdgeListLoader();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0;
+			if (format == Format.BINARY) {
+				if (size < 4 || channel.map(FileChannel.MapMode.READ_ONLY, 0, 4).getInt(0) != MAGIC)
+					throw new IOException("Not a binary edge list.");
+				position = 4;
+			}
+			while (position < size) {
+				long length = Math.min(REGION, size - position);
+				boolean last = (position + length == size);
+				MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				int consumed = (format == Format.TEXT ? loader.text(region, last) : loader.binary(region, last));
+				if (consumed == 0)
+					throw new IOException("Edge of more than " + REGION + " bytes at line " + (loader.line + 1) + ".");
+				position += consumed;
+			}
+		}
+		return loader.graph();
+	}
+
+	/**
+	 * Writes the edges of the graph as a binary edge list. The stream is not
+	 * closed.
+	 */
+	public static void writeBinary(Graph graph, OutputStream stream) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+		GraphIndex index = graph.getIndex();
+		byte[][] tags = new byte[index.getNodeCount()][];
+		for (int node = 0; node < tags.length; node++)
+			tags[node] = index.getNode(node).getTag().getBytes(StandardCharsets.UTF_8);
+		out.writeInt(MAGIC);
+		for (int i = 0; i < index.getEdgeCount(); i++) {
+			byte[] start = tags[index.start(i)];
+			byte[] end = tags[index.target(i)];
+			out.writeInt(start.length);
+			out.write(start);
+			out.writeInt(end.length);
+			out.write(end);
+			out.writeFloat(index.weight(i));
+		}
+		out.flush();
+	}
+
+	/**
+	 * Parses the complete lines of the region, returning the number of bytes
+	 * consumed.
+	 */
+	private int text(ByteBuffer region, boolean last) throws IOException, DuplicateEdgeException {
+
+		int limit = region.limit();
+		int position = 0;
+		while (position < limit) {
+			int end = position;
+			while (end < limit && region.get(end) != '\n')
+				end++;
+			if (end == limit && !last)
+				break;
+			line++;
+
+			int start = skip(region, position, end);
+			if (start < end && region.get(start) != '#') {
+				int startEnd = token(region, start, end);
+				int target = skip(region, startEnd, end);
+				int targetEnd = token(region, target, end);
+				int weight = skip(region, targetEnd, end);
+				int weightEnd = token(region, weight, end);
+				if (start == startEnd || target == targetEnd || weight == weightEnd || skip(region, weightEnd, end) != end)
+					throw new IOException("Malformed edge at line " + line + ".");
+				edge(intern(region, start, startEnd), intern(region, target, targetEnd),
+						parseWeight(region, weight, weightEnd));
+			}
+			position = Math.min(end + 1, limit);
+		}
+		return position;
+	}
+
+	/**
+	 * Parses the complete records of the region, returning the number of bytes
+	 * consumed.
+	 */
+	private int binary(ByteBuffer region, boolean last) throws IOException, DuplicateEdgeException {
+
+		int limit = region.limit();
+		int position = 0;
+		while (position < limit) {
+			if (limit - position < 4)
+				break;
+			int startLength = region.getInt(position);
+			int start = position + 4;
+			if (startLength < 0 || limit - start < (long) startLength + 4)
+				break;
+			int endLength = region.getInt(start + startLength);
+			int target = start + startLength + 4;
+			if (endLength < 0 || limit - target < (long) endLength + 4)
+				break;
+			line++;
+			edge(intern(region, start, start + startLength), intern(region, target, target + endLength),
+					region.getFloat(target + endLength));
+			position = target + endLength + 4;
+		}
+		if (last && position < limit)
+			throw new IOException("Truncated edge after record " + line + ".");
+		return position;
+	}
+
+	private static int skip(ByteBuffer region, int position, int end) {
+		while (position < end && isSpace(region.get(position)))
+			position++;
+		return position;
+	}
+
+	private static int token(ByteBuffer region, int position, int end) {
+		while (position < end && !isSpace(region.get(position)))
+			position++;
+		return position;
+	}
+
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t' || b == '\r';
+	}
+
+	/**
+	 * Parses a decimal weight. Up to 15 significant digits and a power of ten
+	 * up to 22 are exact in a double, so one multiplication or division gives
+	 * the correctly rounded double. Rounding that double to a float gives the
+	 * same result as {@link Float#parseFloat(String)}, except when it lies
+	 * exactly half-way between two floats; those weights and anything else go
+	 * through {@link Float#parseFloat(String)} itself. NaN and weights that
+	 * are infinite, or overflow to infinity, are malformed.
+	 */
+	private float parseWeight(ByteBuffer region, int start, int end) throws IOException {
+
+		int position = start;
+		boolean negative = false;
+		if (region.get(position) == '-' || region.get(position) == '+')
+			negative = region.get(position++) == '-';
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean any = false;
+		for (; position < end && isDigit(region.get(position)); position++, any = true) {
+			mantissa = mantissa * 10 + region.get(position) - '0';
+			digits += (mantissa != 0 ? 1 : 0);
+			if (digits > 15)
+				return parseFloat(region, start, end);
+		}
+		if (position < end && region.get(position) == '.') {
+			for (position++; position < end && isDigit(region.get(position)); position++, any = true) {
+				mantissa = mantissa * 10 + region.get(position) - '0';
+				digits += (mantissa != 0 ? 1 : 0);
+				exponent--;
+				if (digits > 15)
+					return parseFloat(region, start, end);
+			}
+		}
+		if (any && position < end && (region.get(position) == 'e' || region.get(position) == 'E')) {
+			position++;
+			boolean negativeExponent = false;
+			if (position < end && (region.get(position) == '-' || region.get(position) == '+'))
+				negativeExponent = region.get(position++) == '-';
+			int power = 0;
+			boolean anyPower = false;
+			for (; position < end && isDigit(region.get(position)) && power < 1000; position++, anyPower = true)
+				power = power * 10 + region.get(position) - '0';
+			if (!anyPower)
+				return parseFloat(region, start, end);
+			exponent += (negativeExponent ? -power : power);
+		}
+		if (!any || position != end || exponent < -22 || exponent > 22)
+			return parseFloat(region, start, end);
+
+		double value = (exponent < 0 ? mantissa / POWERS[-exponent] : mantissa * POWERS[exponent]);
+		float result = (float) value;
+		if (value == ((double) result + Math.nextUp(result)) / 2
+				|| value == ((double) result + Math.nextDown(result)) / 2)
+			return parseFloat(region, start, end);
+		return (negative ? -result : result);
+	}
+
+	private float parseFloat(ByteBuffer region, int start, int end) throws IOException {
+		String text = string(region, start, end);
+		float result;
+		try {
+			result = Float.parseFloat(text);
+		} catch (NumberFormatException e) {
+			result = Float.NaN;
+		}
+		if (Float.isNaN(result) || Float.isInfinite(result))
+			throw new IOException("Malformed weight '" + text + "' at line " + line + ".");
+		return result;
+	}
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	private static String string(ByteBuffer region, int start, int end) {
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++)
+			bytes[i] = region.get(start + i);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the id of the tag in the given bytes, adding it when it has not
+	 * been seen before.
+	 */
+	private int intern(ByteBuffer region, int start, int end) {
+
+		int length = end - start;
+		int hash = 0x811C9DC5;
+		for (int i = start; i < end; i++)
+			hash = (hash ^ region.get(i)) * 0x01000193;
+
+		int mask = slots.length - 1;
+		int slot = mix(hash) & mask;
+		for (int id; (id = slots[slot] - 1) >= 0; slot = (slot + 1) & mask)
+			if (tagHashes[id] == hash && tagLengths[id] == length && equal(region, start, id))
+				return id;
+
+		if (arenaSize + length > arena.length)
+			arena = Arrays.copyOf(arena, (int) Math.min(Math.max(arena.length * 2L, (long) arenaSize + length),
+					Integer.MAX_VALUE - 8));
+		for (int i = 0; i < length; i++)
+			arena[arenaSize + i] = region.get(start + i);
+		if (tagCount == tagOffsets.length) {
+			tagOffsets = Arrays.copyOf(tagOffsets, tagCount * 2);
+			tagLengths = Arrays.copyOf(tagLengths, tagCount * 2);
+			tagHashes = Arrays.copyOf(tagHashes, tagCount * 2);
+		}
+		int id = tagCount++;
+		tagOffsets[id] = arenaSize;
+		tagLengths[id] = length;
+		tagHashes[id] = hash;
+		arenaSize += length;
+		slots[slot] = id + 1;
+		if (tagCount * 2 > slots.length)
+			rehashTags();
+		return id;
+	}
+
+	private boolean equal(ByteBuffer region, int start, int id) {
+		int offset = tagOffsets[id];
+		for (int i = 0; i < tagLengths[id]; i++)
+			if (arena[offset + i] != region.get(start + i))
+				return false;
+		return true;
+	}
+
+	private void rehashTags() {
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+		for (int id = 0; id < tagCount; id++) {
+			int slot = mix(tagHashes[id]) & mask;
+			while (slots[slot] != 0)
+				slot = (slot + 1) & mask;
+			slots[slot] = id + 1;
+		}
+	}
+
+	private void edge(int start, int end, float weight) throws IllegalArgumentException, DuplicateEdgeException {
+
+		if (start == end)
+			throw new IllegalArgumentException("Start and end node are the same at line " + line + ".");
+		// Never 0: that would be an edge from node 0 to itself.
+		long key = ((long) start << 32) | (end & 0xFFFFFFFFL);
+		int mask = keys.length - 1;
+		int slot = mix(key) & mask;
+		for (; keys[slot] != 0; slot = (slot + 1) & mask)
+			if (keys[slot] == key)
+				throw new DuplicateEdgeException();
+		keys[slot] = key;
+
+		if (edgeCount == startIds.length) {
+			startIds = Arrays.copyOf(startIds, edgeCount * 2);
+			endIds = Arrays.copyOf(endIds, edgeCount * 2);
+			weights = Arrays.copyOf(weights, edgeCount * 2);
+		}
+		startIds[edgeCount] = start;
+		endIds[edgeCount] = end;
+		weights[edgeCount] = weight;
+		edgeCount++;
+		if (edgeCount * 2 > keys.length)
+			rehashEdges();
+	}
+
+	private void rehashEdges() {
+		long[] old = keys;
+		keys = new long[old.length * 2];
+		int mask = keys.length - 1;
+		for (long key : old) {
+			if (key == 0)
+				continue;
+			int slot = mix(key) & mask;
+			while (keys[slot] != 0)
+				slot = (slot + 1) & mask;
+			keys[slot] = key;
+		}
+	}
+
+	private static int mix(int hash) {
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	private static int mix(long key) {
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ (key >>> 32));
+	}
+
+	private Graph graph() {
+		keys = null;
+		slots = null;
+		GraphNode[] nodes = new GraphNode[tagCount];
+		for (int id = 0; id < tagCount; id++)
+			nodes[id] = new GraphNode(new String(arena, tagOffsets[id], tagLengths[id], StandardCharsets.UTF_8));
+		Graph graph = new Graph(tagCount, edgeCount);
+		graph.load(nodes, Arrays.copyOf(startIds, edgeCount), Arrays.copyOf(endIds, edgeCount),
+				Arrays.copyOf(weights, edgeCount));
+		return graph;
+	}
+
+}
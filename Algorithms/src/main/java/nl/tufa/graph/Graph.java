@@ -1,9 +1,21 @@
 package nl.tufa.graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
 
 /*
 	Copyright 2020 M.C.Slooff
@@ -35,15 +47,52 @@ import java.util.stream.Collectors;
 
 public class Graph {
 
-	private List<GraphEdge> edges = new ArrayList<GraphEdge>();
-	private List<GraphNode> nodes = new ArrayList<GraphNode>();
+	private List<GraphEdge> edges;
+	private List<GraphNode> nodes;
+	private Map<Long, GraphEdge> edgesByKey;
+	private Map<String, GraphNode> nodesByTag;
+	private NodeTable table;
 	private GraphNode start = null;
 	private GraphNode end = null;
+	private volatile GraphIndex index = null;
+	private volatile boolean frozen = false;
+	private volatile ContractionHierarchy hierarchy = null;
+	private volatile Landmarks landmarks = null;
+	private volatile QueryCache cache = null;
+	private final AtomicLong version = new AtomicLong();
+	private final List<DynamicShortestPathTree> weightListeners = new CopyOnWriteArrayList<>();
+	private QueryMode queryMode = QueryMode.DIJKSTRA;
+	private volatile Heuristic heuristic = Heuristics.none();
 
 	public Graph() {
+		this(16, 16);
+	}
+
+	/**
+	 * Creates an empty graph with room for the expected number of nodes and
+	 * edges, avoiding rehashing while a large graph is loaded.
+	 */
+	Graph(int expectedNodes, int expectedEdges) {
+		nodes = new ArrayList<GraphNode>(expectedNodes);
+		nodesByTag = new HashMap<String, GraphNode>(capacity(expectedNodes));
+		edges = new ArrayList<GraphEdge>(expectedEdges);
+		edgesByKey = new HashMap<Long, GraphEdge>(capacity(expectedEdges));
+		table = new NodeTable(expectedNodes);
+	}
+
+	/**
+	 * Creates a graph on a read-only index, such as an opened
+	 * {@link GraphSnapshot}. Queries run on the index directly; the nodes and
+	 * edges are only created when the graph is changed for the first time.
+	 */
+	Graph(GraphIndex snapshot) {
+		this();
+		index = snapshot;
+		frozen = true;
 	}
 
 	public Graph(GraphNode start, GraphNode end) throws NullPointerException, DuplicatedNodeException {
+		this();
 		if (start == null || end == null)
 			throw new NullPointerException();
 		this.addNode(start);
@@ -68,38 +117,230 @@ public class Graph {
 		this.end = end;
 	}
 
+	public QueryMode getQueryMode() {
+		return queryMode;
+	}
+
+	/**
+	 * Selects the search strategy used by
+	 * {@link #getLowestCost(GraphNode, GraphNode)}.
+	 */
+	public void setQueryMode(QueryMode queryMode) {
+		if (queryMode == null)
+			throw new NullPointerException();
+		this.queryMode = queryMode;
+	}
+
+	/**
+	 * Returns the version of the graph, incremented by every change to its
+	 * nodes or edges, including weight changes of its edges.
+	 */
+	public long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * Returns the query result cache, or <code>null</code> when caching is
+	 * disabled.
+	 */
+	public QueryCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Caches the results of up to <code>capacity</code> lowest cost queries,
+	 * or disables the cache when the capacity is 0. Results computed for an
+	 * older version of the graph are never returned.
+	 */
+	public void setCacheCapacity(int capacity) throws IllegalArgumentException {
+		cache = (capacity == 0 ? null : new QueryCache(capacity));
+	}
+
+	public Heuristic getHeuristic() {
+		return heuristic;
+	}
+
+	/**
+	 * Sets the lower bound estimate used by the {@link QueryMode#ASTAR} query
+	 * mode, see {@link Heuristics} for heuristics based on node coordinates.
+	 * Cached A* results of an earlier heuristic are not returned.
+	 */
+	public void setHeuristic(Heuristic heuristic) {
+		if (heuristic == null)
+			throw new NullPointerException();
+		this.heuristic = heuristic;
+	}
+
 	public GraphNode addNode(GraphNode node) throws DuplicatedNodeException, NullPointerException {
 		if (node == null)
 			throw new NullPointerException();
-		if (!nodes.contains(node)) {
-			nodes.add(node);
-		} else {
+		thaw();
+		if (nodesByTag.putIfAbsent(node.getTag(), node) != null)
 			throw new DuplicatedNodeException();
-		}
+		nodes.add(node);
+		table.replace(table.intern(node), node);
+		changed();
 		return node;
 	}
 
 	public void addEdge(GraphEdge edge) throws NullPointerException, DuplicateEdgeException {
 		if (edge == null)
 			throw new NullPointerException();
-		if (!edges.contains(edge)) {
-			edges.add(edge);
-		} else {
+		if (edge.graph != null && edge.graph != this)
+			throw new IllegalArgumentException("Edge is already part of another graph.");
+		thaw();
+		if (!registerEdge(edge))
 			throw new DuplicateEdgeException();
+		edge.graph = this;
+		edges.add(edge);
+		changed();
+	}
+
+	/**
+	 * Called by an edge of this graph before its start or end node changes,
+	 * the edge is re-registered under its new end points afterwards.
+	 */
+	void unregisterEdge(GraphEdge edge) {
+		edgesByKey().remove(key(edge.startId, edge.endId));
+	}
+
+	boolean registerEdge(GraphEdge edge) {
+		int startId = table.intern(edge.getStart());
+		int endId = table.intern(edge.getEnd());
+		if (edgesByKey().putIfAbsent(key(startId, endId), edge) != null)
+			return false;
+		edge.startId = startId;
+		edge.endId = endId;
+		return true;
+	}
+
+	/**
+	 * Returns the edges by their end point ids, building the map when the
+	 * graph was filled by {@link #load(GraphNode[], int[], int[], float[])}.
+	 */
+	private Map<Long, GraphEdge> edgesByKey() {
+		if (edgesByKey == null) {
+			edgesByKey = new HashMap<Long, GraphEdge>(capacity(edges.size()));
+			for (GraphEdge edge : edges)
+				edgesByKey.put(key(edge.startId, edge.endId), edge);
+		}
+		return edgesByKey;
+	}
+
+	/**
+	 * Fills an empty graph with nodes, by id, and the edges between them, for
+	 * loaders that have checked the edges for duplicates themselves. The index
+	 * is built right away from the primitive arrays; the map of edges by end
+	 * points only when the graph is changed.
+	 */
+	void load(GraphNode[] nodes, int[] startIds, int[] endIds, float[] weights) throws IllegalStateException {
+
+		if (table.size() > 0)
+			throw new IllegalStateException("Graph is not empty.");
+		for (GraphNode node : nodes)
+			table.intern(node);
+		GraphEdge[] loaded = new GraphEdge[startIds.length];
+		for (int i = 0; i < loaded.length; i++) {
+			GraphEdge edge = new GraphEdge(nodes[startIds[i]], nodes[endIds[i]], weights[i]);
+			edge.graph = this;
+			edge.startId = startIds[i];
+			edge.endId = endIds[i];
+			edges.add(edge);
+			loaded[i] = edge;
+		}
+		edgesByKey = null;
+		changed();
+		index = new HeapGraphIndex(table, startIds, endIds, weights, loaded);
+	}
+
+	/**
+	 * Creates the nodes and edges of a graph opened on a read-only index, all
+	 * nodes of the index count as added to the graph. Called before every
+	 * change.
+	 */
+	private synchronized void thaw() {
+		if (!frozen)
+			return;
+		frozen = false;
+		GraphIndex snapshot = index;
+		GraphNode[] loaded = new GraphNode[snapshot.getNodeCount()];
+		for (int id = 0; id < loaded.length; id++) {
+			GraphNode node = snapshot.getNode(id);
+			nodesByTag.put(node.getTag(), node);
+			nodes.add(node);
+			loaded[id] = node;
 		}
+		int edgeCount = snapshot.getEdgeCount();
+		int[] startIds = new int[edgeCount];
+		int[] endIds = new int[edgeCount];
+		float[] weights = new float[edgeCount];
+		for (int i = 0; i < edgeCount; i++) {
+			startIds[i] = snapshot.start(i);
+			endIds[i] = snapshot.target(i);
+			weights[i] = snapshot.weight(i);
+		}
+		load(loaded, startIds, endIds, weights);
+	}
+
+	private static long key(int startId, int endId) {
+		return ((long) startId << 32) | (endId & 0xffffffffL);
+	}
+
+	/**
+	 * Returns the node with the given tag, or <code>null</code> when no such
+	 * node has been added to this graph.
+	 */
+	public GraphNode getNode(String tag) {
+		if (frozen) {
+			GraphIndex index = this.index;
+			int id = index.getNodeId(tag);
+			return (id < 0 ? null : index.getNode(id));
+		}
+		return nodesByTag.get(tag);
+	}
+
+	/**
+	 * Returns the dense id of the node, or -1 when the node is neither added
+	 * to this graph nor used by any of its edges.
+	 */
+	public int getNodeId(GraphNode node) {
+		if (node == null)
+			throw new NullPointerException();
+		return getNodeId(node.getTag());
+	}
+
+	public int getNodeId(String tag) {
+		if (frozen)
+			return index.getNodeId(tag);
+		return table.id(tag);
+	}
+
+	/**
+	 * Returns the node with the given dense id.
+	 */
+	public GraphNode getNode(int id) throws IndexOutOfBoundsException {
+		if (frozen)
+			return index.getNode(id);
+		return table.node(id);
 	}
 
 	private GraphNode findNodeByTag(String tag) {
 
-		Optional<GraphNode> node = nodes.stream().filter(n -> n.getTag().equals(tag)).findFirst();
-		if (node.isPresent())
-			return node.get();
+		int id = table.id(tag);
+		if (id >= 0)
+			return table.node(id);
 		return new GraphNode(tag);
 	}
 
 	public GraphEdge createEdge(String startTag, String endTag, Float weight)
 			throws NullPointerException, DuplicateEdgeException {
+		return createEdge(startTag, endTag, (weight == null ? Float.NaN : weight.floatValue()));
+	}
+
+	public GraphEdge createEdge(String startTag, String endTag, float weight)
+			throws NullPointerException, DuplicateEdgeException {
 
+		thaw();
 		GraphNode start = findNodeByTag(startTag);
 		GraphNode end = findNodeByTag(endTag);
 
@@ -109,6 +350,11 @@ public class Graph {
 
 	public GraphEdge createEdge(GraphNode start, GraphNode end, Float weight)
 			throws NullPointerException, DuplicateEdgeException {
+		return createEdge(start, end, (weight == null ? Float.NaN : weight.floatValue()));
+	}
+
+	public GraphEdge createEdge(GraphNode start, GraphNode end, float weight)
+			throws NullPointerException, DuplicateEdgeException {
 
 		GraphEdge edge = new GraphEdge(start, end, weight);
 		this.addEdge(edge);
@@ -116,50 +362,518 @@ public class Graph {
 		return edge;
 	}
 
-	private Float lowestCost(GraphNode start) {
-		
-		List<GraphEdge> edges = this.edges.stream().filter(edge -> edge.getStart().equals(start))
-				.collect(Collectors.toList());
+	/**
+	 * Returns the compressed sparse row index of this graph, building it when
+	 * the graph has been changed since the index was last built.
+	 */
+	public GraphIndex getIndex() {
+		GraphIndex result = index;
+		if (result != null)
+			return result;
+		synchronized (this) {
+			if (index == null)
+				index = new HeapGraphIndex(table, edges);
+			return index;
+		}
+	}
 
-		if (start.cost == null)
-			start.cost = (float) 0;
-		for (GraphEdge edge : edges) {
-			//System.out.print(edge.getStart().getTag() + "-" + edge.getEnd().getTag() + "=" + edge.getWeight());
+	/**
+	 * Drops the index and everything derived from it and builds a new index.
+	 */
+	public synchronized GraphIndex rebuildIndex() {
+		changed();
+		return getIndex();
+	}
+
+	/**
+	 * Drops the index and everything derived from it, called on every change
+	 * to the nodes or edges of the graph.
+	 */
+	void changed() {
+		changed(false);
+	}
 
-			Float total = start.cost + edge.getWeight();
-			//System.out.println(" (" + edge.getEnd().getTag() + ": cur=" + edge.getEnd().cost + ", new=" + total + ")");
+	/**
+	 * Drops the index and everything derived from it, except the landmarks
+	 * when asked to: they remain lower bounds after a weight increase.
+	 */
+	private void changed(boolean keepLandmarks) {
+		thaw();
+		index = null;
+		hierarchy = null;
+		if (!keepLandmarks)
+			landmarks = null;
+		// Last, so a query that reads the new version also gets a new index.
+		version.incrementAndGet();
+	}
 
-			if (edge.getEnd().cost == null || total < edge.getEnd().cost) {
-				edge.getEnd().cost = total;
-			}
-			
-			lowestCost(edge.getEnd());
+	/**
+	 * Called by an edge of this graph after its weight changed, so dynamic
+	 * shortest path trees can repair themselves.
+	 */
+	void weightChanged(GraphEdge edge, float oldWeight) {
+		long previous = version.get();
+		changed(edge.getWeightValue() >= oldWeight);
+		for (DynamicShortestPathTree tree : weightListeners)
+			tree.weightChanged(edge, oldWeight, previous);
+	}
+
+	void addWeightListener(DynamicShortestPathTree tree) {
+		weightListeners.add(tree);
+	}
+
+	void removeWeightListener(DynamicShortestPathTree tree) {
+		weightListeners.remove(tree);
+	}
+
+	/**
+	 * Returns the contraction hierarchy of this graph, contracting the graph
+	 * when it has been changed since the hierarchy was last built or set.
+	 */
+	public ContractionHierarchy getHierarchy() {
+		ContractionHierarchy result = hierarchy;
+		if (result != null)
+			return result;
+		synchronized (this) {
+			if (hierarchy == null)
+				hierarchy = ContractionHierarchy.build(this);
+			return hierarchy;
 		}
+	}
+
+	/**
+	 * Installs a previously built, typically loaded, contraction hierarchy.
+	 */
+	public synchronized void setHierarchy(ContractionHierarchy hierarchy) throws IllegalArgumentException {
+		if (hierarchy == null)
+			throw new NullPointerException();
+		GraphIndex index = getIndex();
+		if (hierarchy.getNodeCount() != index.getNodeCount() || hierarchy.getChecksum() != index.checksum())
+			throw new IllegalArgumentException("Contraction hierarchy belongs to a different version of the graph.");
+		this.hierarchy = hierarchy;
+	}
+
+	private Float lowestCost(GraphNode start, GraphNode end, QueryMode mode)
+			throws NegativeCycleException, InterruptedException {
+
+		// Read before the index, so a result is never newer than its version.
+		long version = this.version.get();
+		GraphIndex index = getIndex();
+		int source = index.getNodeId(start);
+		int target = index.getNodeId(end);
+		if (source < 0 || target < 0)
+			return null;
 
-		return this.end.cost;
+		QueryCache cache = this.cache;
+		Heuristic heuristic = this.heuristic;
+		// A* results depend on the heuristic when it is not admissible.
+		Object variant = (mode == QueryMode.ASTAR ? heuristic : null);
+		float cost = (cache != null ? cache.get(source, target, mode, variant, version) : Float.NaN);
+		if (!Float.isNaN(cost))
+			return (cost == Float.POSITIVE_INFINITY ? null : cost);
+
+		if (mode == QueryMode.LONGEST_PATH) {
+			if (!index.isAcyclic())
+				throw new IllegalStateException("Longest paths need an acyclic graph.");
+			cost = DagSearch.search(index, source, target, true);
+		} else if (!index.hasNegativeWeights() && !index.getComponents().mayReach(source, target)) {
+			// Ruled out by the strongly connected components, no search needed.
+			cost = Float.POSITIVE_INFINITY;
+		} else if ((mode == QueryMode.DIJKSTRA || index.hasNegativeWeights()) && index.isAcyclic()) {
+			cost = DagSearch.search(index, source, target, false);
+		} else if (index.hasNegativeWeights()) {
+			// None of the query modes can handle negative weights.
+			cost = BellmanFord.search(index, source, ForkJoinPool.commonPool())[target];
+		} else {
+			switch (mode) {
+			case BIDIRECTIONAL:
+				cost = BidirectionalSearch.search(index, source, target);
+				break;
+			case ASTAR:
+				cost = AStarSearch.search(index, source, target, heuristic);
+				break;
+			case ALT:
+				cost = AStarSearch.search(index, source, target, getLandmarks());
+				break;
+			case CONTRACTION_HIERARCHY:
+				cost = getHierarchy().query(source, target);
+				break;
+			default:
+				cost = DijkstraSearch.search(index, source, target);
+			}
+		}
+		if (cache != null)
+			cache.put(source, target, mode, variant, version, cost);
+		return (cost == Float.POSITIVE_INFINITY ? null : cost);
 	}
 
+	/**
+	 * Returns the cost of the cheapest path from start to end, or
+	 * <code>null</code> when there is no such path. When start or end is
+	 * <code>null</code> the start or end node of the graph is used instead.
+	 * When any edge has a negative weight the query mode is ignored and
+	 * Bellman-Ford is used instead, throwing a {@link NegativeCycleException}
+	 * when a negative cycle can be reached from start. On an acyclic graph
+	 * the {@link QueryMode#DIJKSTRA} mode and negative weights take a single
+	 * pass over the nodes in topological order instead. Without negative
+	 * weights most pairs where end can not be reached from start are answered
+	 * from the {@link StronglyConnectedComponents} of the graph without a
+	 * search.
+	 * Queries do not change the graph, so any number of threads can query the
+	 * same graph concurrently as long as it is not modified meanwhile.
+	 */
 	public Float getLowestCost(GraphNode start, GraphNode end) throws Exception {
+		return getLowestCost(start, end, queryMode);
+	}
 
+	/**
+	 * Returns the cost of the cheapest path from start to end using the given
+	 * search strategy instead of the one selected for the graph.
+	 */
+	public Float getLowestCost(GraphNode start, GraphNode end, QueryMode mode) throws Exception {
+
+		if (mode == null)
+			throw new NullPointerException();
 		if (start == null && this.start == null)
 			throw new Exception("No start node specified to start from.");
 		if (end == null && this.end == null)
 			throw new Exception("No end node specified to end at.");
-		this.start = (start != null ? start : this.start);
-		this.end = (end != null ? end : this.end);
-		if (this.start == null || this.end == null)
+		start = (start != null ? start : this.start);
+		end = (end != null ? end : this.end);
+		if (start == null || end == null)
 			throw new Exception("No start and/or end node in graph.");
 
-		for (GraphNode node : nodes) {
-			node.cost = null;
+		return lowestCost(start, end, mode);
+	}
+
+	/**
+	 * Returns the costs of the cheapest paths from every source to every
+	 * target, <code>table[s][t]</code> by position in the lists, with
+	 * <code>Float.POSITIVE_INFINITY</code> where there is no path or the node
+	 * is not part of the graph. The table is computed by a bucket based
+	 * many-to-many search on the contraction hierarchy of the graph, or by a
+	 * search from every source when any edge has a negative weight, in
+	 * parallel on the common fork-join pool. With negative weights any
+	 * negative cycle in the graph is reported.
+	 */
+	public float[][] distanceTable(List<GraphNode> sources, List<GraphNode> targets)
+			throws NegativeCycleException, InterruptedException {
+
+		GraphIndex index = getIndex();
+		int[] sourceIds = sources.stream().mapToInt(node -> nodeId(index, node)).toArray();
+		int[] targetIds = targets.stream().mapToInt(node -> nodeId(index, node)).toArray();
+		if (!index.hasNegativeWeights())
+			return getHierarchy().table(sourceIds, targetIds);
+
+		float[] potential = BellmanFord.potentials(index, ForkJoinPool.commonPool());
+		float[][] table = new float[sourceIds.length][targetIds.length];
+		IntStream.range(0, sourceIds.length).parallel().forEach(s -> {
+			Arrays.fill(table[s], Float.POSITIVE_INFINITY);
+			if (sourceIds[s] < 0)
+				return;
+			float[] costs = DijkstraSearch.all(index, sourceIds[s], potential);
+			for (int t = 0; t < targetIds.length; t++)
+				if (targetIds[t] >= 0)
+					table[s][t] = costs[targetIds[t]];
+		});
+		return table;
+	}
+
+	private static int nodeId(GraphIndex index, GraphNode node) {
+		if (node == null)
+			throw new NullPointerException();
+		return index.getNodeId(node);
+	}
+
+	private static int capacity(int expected) {
+		return (int) Math.min((long) (expected / 0.75f) + 1, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the landmarks used by the {@link QueryMode#ALT} query mode,
+	 * selecting 16 landmarks with the {@link Landmarks.Selection#FARTHEST}
+	 * strategy when none have been set for the current index.
+	 */
+	public Landmarks getLandmarks() {
+		Landmarks result = landmarks;
+		if (result != null)
+			return result;
+		synchronized (this) {
+			if (landmarks == null)
+				landmarks = Landmarks.select(this, 16, Landmarks.Selection.FARTHEST);
+			return landmarks;
+		}
+	}
+
+	/**
+	 * Installs landmarks for the {@link QueryMode#ALT} query mode, selected on
+	 * the current index of this graph. The graph keeps them when edge weights
+	 * increase and drops them on any other change.
+	 */
+	public synchronized void setLandmarks(Landmarks landmarks) throws IllegalArgumentException {
+		if (landmarks == null)
+			throw new NullPointerException();
+		GraphIndex index = getIndex();
+		if (landmarks.getNodeCount() != index.getNodeCount() || landmarks.getChecksum() != index.checksum())
+			throw new IllegalArgumentException("Landmarks belong to a different version of the graph.");
+		this.landmarks = landmarks;
+	}
+
+	/**
+	 * Returns the cheapest path from start to end, or <code>null</code> when
+	 * there is no such path, with the defaults and negative weight handling of
+	 * {@link #getLowestCost(GraphNode, GraphNode)}. The path is traced by
+	 * Dijkstra's algorithm, by A* when the query mode is
+	 * {@link QueryMode#ASTAR} or {@link QueryMode#ALT}, or unpacked from the
+	 * shortcuts of the contraction hierarchy in the
+	 * {@link QueryMode#CONTRACTION_HIERARCHY} mode. The
+	 * {@link QueryMode#BIDIRECTIONAL} mode falls back to Dijkstra's algorithm
+	 * for paths. With the {@link QueryMode#LONGEST_PATH} mode the most
+	 * expensive path is returned.
+	 */
+	public ShortestPath getShortestPath(GraphNode start, GraphNode end) throws Exception {
+
+		if (start == null && this.start == null)
+			throw new Exception("No start node specified to start from.");
+		if (end == null && this.end == null)
+			throw new Exception("No end node specified to end at.");
+		start = (start != null ? start : this.start);
+		end = (end != null ? end : this.end);
+
+		GraphIndex index = getIndex();
+		int source = index.getNodeId(start);
+		int target = index.getNodeId(end);
+		if (source < 0 || target < 0)
+			return null;
+
+		boolean longest = (queryMode == QueryMode.LONGEST_PATH);
+		if (longest && !index.isAcyclic())
+			throw new IllegalStateException("Longest paths need an acyclic graph.");
+
+		float cost;
+		if ((longest || queryMode == QueryMode.DIJKSTRA || index.hasNegativeWeights()) && index.isAcyclic()) {
+			cost = DagSearch.search(index, source, target, longest);
+		} else if (index.hasNegativeWeights()) {
+			return BellmanFord.tree(index, source, ForkJoinPool.commonPool()).getPath(end);
+		} else {
+			switch (queryMode) {
+			case ASTAR:
+				cost = AStarSearch.search(index, source, target, heuristic);
+				break;
+			case ALT:
+				cost = AStarSearch.search(index, source, target, getLandmarks());
+				break;
+			case CONTRACTION_HIERARCHY:
+				return path(index, getHierarchy().path(source, target));
+			default:
+				cost = DijkstraSearch.search(index, source, target);
+			}
+		}
+		if (cost == Float.POSITIVE_INFINITY)
+			return null;
+		return new ShortestPath(index, source, SearchSpace.current().path(index, target), cost);
+	}
+
+	/**
+	 * Returns the path through the given node ids, taking the cheapest edge
+	 * between every two of them, or <code>null</code> without node ids.
+	 */
+	private static ShortestPath path(GraphIndex index, int[] nodes) {
+		if (nodes == null)
+			return null;
+		int[] edges = new int[nodes.length - 1];
+		float cost = 0;
+		for (int n = 0; n < edges.length; n++) {
+			int best = -1;
+			for (int i = index.firstEdge(nodes[n]), last = index.endEdge(nodes[n]); i < last; i++)
+				if (index.target(i) == nodes[n + 1] && (best < 0 || index.weight(i) < index.weight(best)))
+					best = i;
+			edges[n] = best;
+			cost += index.weight(best);
+		}
+		return new ShortestPath(index, nodes[0], edges, cost);
+	}
+
+	/**
+	 * Returns the cheapest paths from start to every node, found by a single
+	 * search.
+	 */
+	public ShortestPathTree getShortestPathTree(GraphNode start) throws Exception {
+
+		if (start == null)
+			start = this.start;
+		if (start == null)
+			throw new Exception("No start node specified to start from.");
+
+		GraphIndex index = getIndex();
+		int source = index.getNodeId(start);
+		if (source < 0)
+			throw new Exception("Start node not in graph.");
+		if (index.hasNegativeWeights())
+			return BellmanFord.tree(index, source, ForkJoinPool.commonPool());
+		return DijkstraSearch.tree(index, source);
+	}
+
+	/**
+	 * Returns the cost of the cheapest path from start to every node, indexed
+	 * by node id (see {@link #getNode(int)}), with
+	 * <code>Float.POSITIVE_INFINITY</code> for nodes that can not be reached.
+	 * The costs are computed by parallel delta-stepping on the common
+	 * fork-join pool, or by parallel Bellman-Ford when any edge has a negative
+	 * weight.
+	 */
+	public float[] getLowestCosts(GraphNode start) throws Exception {
+		return getLowestCosts(start, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Returns the cost of the cheapest path from start to every node, computed
+	 * on the given pool.
+	 */
+	public float[] getLowestCosts(GraphNode start, ForkJoinPool pool) throws Exception {
+
+		if (start == null)
+			start = this.start;
+		if (start == null)
+			throw new Exception("No start node specified to start from.");
+		if (pool == null)
+			throw new NullPointerException();
+
+		GraphIndex index = getIndex();
+		int source = index.getNodeId(start);
+		if (source < 0) {
+			float[] costs = new float[index.getNodeCount()];
+			Arrays.fill(costs, Float.POSITIVE_INFINITY);
+			return costs;
+		}
+		if (index.hasNegativeWeights())
+			return BellmanFord.search(index, source, pool);
+		return DeltaStepping.search(index, source, DeltaStepping.defaultDelta(index), pool);
+	}
+
+	/**
+	 * Returns the cost of the best path from start to end in the given
+	 * semiring, with the weight of every edge given by the function, or the
+	 * infinity of the semiring when there is no such path. The function is
+	 * only called for the edges the search relaxes, so a nearby end stays
+	 * cheap on large graphs. When start or end is <code>null</code> the start
+	 * or end node of the graph is used instead.
+	 */
+	public double getLowestCost(GraphNode start, GraphNode end, DoubleSemiring semiring,
+			ToDoubleFunction<GraphEdge> weight) throws Exception {
+		GraphIndex index = getIndex();
+		int source = startId(index, start);
+		int target = endId(index, end);
+		if (source < 0 || target < 0)
+			return semiring.infinity();
+		return SemiringSearch.search(index, source, target, doubleWeights(index, weight), semiring)[target];
+	}
+
+	/**
+	 * Returns the cost of the best path from start to end in a semiring on
+	 * exact integer costs.
+	 */
+	public long getLowestCost(GraphNode start, GraphNode end, LongSemiring semiring,
+			ToLongFunction<GraphEdge> weight) throws Exception {
+		GraphIndex index = getIndex();
+		int source = startId(index, start);
+		int target = endId(index, end);
+		if (source < 0 || target < 0)
+			return semiring.infinity();
+		return SemiringSearch.search(index, source, target, longWeights(index, weight), semiring)[target];
+	}
+
+	/**
+	 * Returns the cost of the best path from start to end in a semiring on
+	 * objects, such as {@link Semirings#shortestFraction()}.
+	 */
+	public <W> W getLowestCost(GraphNode start, GraphNode end, Semiring<W> semiring, Function<GraphEdge, W> weight)
+			throws Exception {
+		GraphIndex index = getIndex();
+		int source = startId(index, start);
+		int target = endId(index, end);
+		if (source < 0 || target < 0)
+			return semiring.infinity();
+		return SemiringSearch.search(index, source, target, objectWeights(index, weight), semiring).get(target);
+	}
+
+	/**
+	 * Returns the cost of the best path from start to every node in the given
+	 * semiring, indexed by node id.
+	 */
+	public double[] getLowestCosts(GraphNode start, DoubleSemiring semiring, ToDoubleFunction<GraphEdge> weight)
+			throws Exception {
+		GraphIndex index = getIndex();
+		int source = startId(index, start);
+		if (source < 0) {
+			double[] costs = new double[index.getNodeCount()];
+			Arrays.fill(costs, semiring.infinity());
+			return costs;
+		}
+		return SemiringSearch.search(index, source, -1, doubleWeights(index, weight), semiring);
+	}
+
+	public long[] getLowestCosts(GraphNode start, LongSemiring semiring, ToLongFunction<GraphEdge> weight)
+			throws Exception {
+		GraphIndex index = getIndex();
+		int source = startId(index, start);
+		if (source < 0) {
+			long[] costs = new long[index.getNodeCount()];
+			Arrays.fill(costs, semiring.infinity());
+			return costs;
 		}
-		System.out.println("----------------------------");
-		return lowestCost(this.start);
+		return SemiringSearch.search(index, source, -1, longWeights(index, weight), semiring);
+	}
+
+	public <W> List<W> getLowestCosts(GraphNode start, Semiring<W> semiring, Function<GraphEdge, W> weight)
+			throws Exception {
+		GraphIndex index = getIndex();
+		int source = startId(index, start);
+		if (source < 0)
+			return Collections.nCopies(index.getNodeCount(), semiring.infinity());
+		return SemiringSearch.search(index, source, -1, objectWeights(index, weight), semiring);
+	}
+
+	private int startId(GraphIndex index, GraphNode start) throws Exception {
+		start = (start != null ? start : this.start);
+		if (start == null)
+			throw new Exception("No start node specified to start from.");
+		return index.getNodeId(start);
+	}
+
+	private int endId(GraphIndex index, GraphNode end) throws Exception {
+		end = (end != null ? end : this.end);
+		if (end == null)
+			throw new Exception("No end node specified to end at.");
+		return index.getNodeId(end);
+	}
+
+	/**
+	 * Reads the weight of the edge at a position of the index only when a
+	 * search relaxes it.
+	 */
+	private static IntToDoubleFunction doubleWeights(GraphIndex index, ToDoubleFunction<GraphEdge> weight) {
+		return edge -> weight.applyAsDouble(index.getEdge(edge));
+	}
+
+	private static IntToLongFunction longWeights(GraphIndex index, ToLongFunction<GraphEdge> weight) {
+		return edge -> weight.applyAsLong(index.getEdge(edge));
+	}
+
+	private static <W> IntFunction<W> objectWeights(GraphIndex index, Function<GraphEdge, W> weight) {
+		return edge -> weight.apply(index.getEdge(edge));
 	}
 
 	@Override
 	public String toString() {
 		String result = "";
+		if (frozen) {
+			GraphIndex index = this.index;
+			for (int i = 0; i < index.getEdgeCount(); i++)
+				result += "[" + index.getNode(index.start(i)).getTag() + "-" + index.getNode(index.target(i)).getTag()
+						+ ":" + index.weight(i) + "]\n";
+			return result;
+		}
 		for (GraphEdge edge : edges) {
 			result += "[" + edge.getStart().getTag() + "-" + edge.getEnd().getTag() + ":" + edge.getWeight() + "]\n";
 		}
@@ -0,0 +1,107 @@
+package nl.tufa.graph;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Bulk loader for large graphs. Nodes are registered in a hash map keyed on
+ * their tag and edges in a hash map keyed on their (start, end) pair, so every
+ * <code>addNode</code> and <code>addEdge</code> call is O(1) and loading
+ * millions of edges takes seconds rather than the O(V&sup2; + E&sup2;) of
+ * repeated list scans.
+ * </p>
+ * <p>
+ * Duplicates are reported with the same {@link DuplicatedNodeException} and
+ * {@link DuplicateEdgeException} as {@link Graph#addNode(GraphNode)} and
+ * {@link Graph#addEdge(GraphEdge)}. Nodes that are only referred to by the tag
+ * of an edge are created once and shared between all edges referring to them,
+ * as with {@link Graph#createEdge(String, String, Float)}.
+ * </p>
+ * <b>Example</b>
+ * 
+ * <pre>
+ * GraphBuilder builder = new GraphBuilder(1000, 5000);
+ * builder.addNode("start");
+ * builder.addEdge("start", "a", 5);
+ * Graph graph = builder.build();
+ * </pre>
+ * 
+ * @author M.C.Slooff
+ */
+public class GraphBuilder {
+
+	private Graph graph;
+
+	public GraphBuilder() {
+		this(16, 16);
+	}
+
+	/**
+	 * Creates a builder sized for the expected number of nodes and edges.
+	 */
+	public GraphBuilder(int expectedNodes, int expectedEdges) throws IllegalArgumentException {
+		if (expectedNodes < 0 || expectedEdges < 0)
+			throw new IllegalArgumentException("Expected sizes must not be negative.");
+		graph = new Graph(expectedNodes, expectedEdges);
+	}
+
+	public GraphNode addNode(String tag) throws DuplicatedNodeException {
+		return addNode(new GraphNode(tag));
+	}
+
+	public GraphNode addNode(GraphNode node) throws DuplicatedNodeException, NullPointerException {
+		return graph().addNode(node);
+	}
+
+	public GraphEdge addEdge(String startTag, String endTag, float weight)
+			throws NullPointerException, DuplicateEdgeException {
+		return graph().createEdge(startTag, endTag, weight);
+	}
+
+	public GraphEdge addEdge(GraphNode start, GraphNode end, float weight)
+			throws NullPointerException, DuplicateEdgeException {
+		return graph().createEdge(start, end, weight);
+	}
+
+	/**
+	 * Returns the loaded graph. The builder can not be used anymore afterwards.
+	 */
+	public Graph build() throws IllegalStateException {
+		Graph result = graph();
+		graph = null;
+		return result;
+	}
+
+	private Graph graph() throws IllegalStateException {
+		if (graph == null)
+			throw new IllegalStateException("Graph has already been built.");
+		return graph;
+	}
+
+}
@@ -32,9 +32,20 @@ public class GraphEdge {
 	
 	private GraphNode start = null;
 	private GraphNode end = null;
-	private Float weight = null;
+	private float weight = Float.NaN;
+	Graph graph = null;
+	int startId = -1;
+	int endId = -1;
 
+	/**
+	 * Creates an edge, a <code>null</code> weight is stored as
+	 * <code>Float.NaN</code>.
+	 */
 	public GraphEdge(GraphNode start, GraphNode end, Float weight) throws NullPointerException, IllegalArgumentException {
+		this(start, end, (weight == null ? Float.NaN : weight.floatValue()));
+	}
+
+	public GraphEdge(GraphNode start, GraphNode end, float weight) throws NullPointerException, IllegalArgumentException {
 		super();
 		if(start==null || end==null) throw new NullPointerException();
 		if(start.equals(end)) throw new IllegalArgumentException("Start and end nade are the same.");
@@ -49,7 +60,15 @@ public class GraphEdge {
 	public void setStart(GraphNode start) throws IllegalArgumentException {
 		if(start==null) throw new NullPointerException();
 		if(start.equals(end)) throw new IllegalArgumentException("Start and end nade are the same.");
+		GraphNode old = this.start;
+		if(graph!=null) graph.unregisterEdge(this);
 		this.start = start;
+		if(graph!=null && !graph.registerEdge(this)) {
+			this.start = old;
+			graph.registerEdge(this);
+			throw new IllegalArgumentException("An edge between these nodes already exists.");
+		}
+		if(graph!=null) graph.changed();
 	}
 	public GraphNode getEnd() {
 		return end;
@@ -57,13 +76,37 @@ public class GraphEdge {
 	public void setEnd(GraphNode end) throws IllegalArgumentException {
 		if(end==null) throw new NullPointerException();
 		if(start.equals(end)) throw new IllegalArgumentException("Start and end nade are the same.");
+		GraphNode old = this.end;
+		if(graph!=null) graph.unregisterEdge(this);
 		this.end = end;
+		if(graph!=null && !graph.registerEdge(this)) {
+			this.end = old;
+			graph.registerEdge(this);
+			throw new IllegalArgumentException("An edge between these nodes already exists.");
+		}
+		if(graph!=null) graph.changed();
 	}
+	/**
+	 * Boxed weight, <code>null</code> when the edge has no weight. Searches
+	 * use {@link #getWeightValue()}, which does not allocate.
+	 */
 	public Float getWeight() {
+		return (Float.isNaN(weight) ? null : weight);
+	}
+	/**
+	 * Returns the weight, or <code>Float.NaN</code> when the edge has no
+	 * weight.
+	 */
+	public float getWeightValue() {
 		return weight;
 	}
 	public void setWeight(Float weight) {
+		setWeight(weight == null ? Float.NaN : weight.floatValue());
+	}
+	public void setWeight(float weight) {
+		float old = this.weight;
 		this.weight = weight;
+		if(graph!=null) graph.weightChanged(this, old);
 	}
 	
 	@Override
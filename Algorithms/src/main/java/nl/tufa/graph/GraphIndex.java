@@ -0,0 +1,308 @@
+package nl.tufa.graph;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Frozen, read-optimized compressed sparse row (CSR) view of a {@link Graph}.
+ * Nodes are identified by their dense ids from 0 to
+ * <code>getNodeCount() - 1</code>, as handed out by the graph, and the
+ * outgoing edges of node <code>v</code> occupy the positions
+ * <code>firstEdge(v)</code> up to (but not including) <code>endEdge(v)</code>
+ * of the flat target and weight arrays. Iterating over the neighbors of a node
+ * is therefore a contiguous array scan without any object access. The
+ * incoming edges of every node are available in the same layout, the reverse
+ * arrays are built the first time they are asked for.
+ * </p>
+ * <p>
+ * The index is a snapshot: it does not follow later changes to the graph. The
+ * graph drops its index when nodes or edges are added and when the weight or
+ * end points of one of its edges change, and builds a new one on the next
+ * query.
+ * </p>
+ * <p>
+ * Subclasses decide where the arrays live: on the heap, built from the nodes
+ * and edges of a graph, or outside the heap, in a memory mapped
+ * {@link GraphSnapshot} or filled by an {@link OffHeapGraphBuilder}. All
+ * searches run on this class only.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Sparse_matrix#Compressed_sparse_row_(CSR,_CRS_or_Yale_format)
+ */
+public abstract class GraphIndex {
+
+	private volatile Reverse reverse = null;
+	private volatile Long checksum = null;
+	private volatile Integer maxIntegerWeight = null;
+	private volatile Topology topology = null;
+	private volatile StronglyConnectedComponents components = null;
+
+	/**
+	 * Incoming edges in the same compressed row layout as the outgoing ones,
+	 * built on first use only.
+	 */
+	private static final class Reverse {
+
+		private final int[] offsets;
+		private final int[] sources;
+		private final float[] weights;
+
+		private Reverse(GraphIndex index) {
+			int nodeCount = index.getNodeCount();
+			int edgeCount = index.getEdgeCount();
+			offsets = new int[nodeCount + 1];
+			for (int i = 0; i < edgeCount; i++)
+				offsets[index.target(i) + 1]++;
+			for (int i = 0; i < nodeCount; i++)
+				offsets[i + 1] += offsets[i];
+			int[] fill = new int[nodeCount];
+			System.arraycopy(offsets, 0, fill, 0, nodeCount);
+			sources = new int[edgeCount];
+			weights = new float[edgeCount];
+			for (int node = 0; node < nodeCount; node++) {
+				for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+					int position = fill[index.target(i)]++;
+					sources[position] = node;
+					weights[position] = index.weight(i);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Topological order of the nodes and the position of every node in it,
+	 * both <code>null</code> when the graph has a cycle.
+	 */
+	private static final class Topology {
+
+		private final int[] order;
+		private final int[] rank;
+
+		/**
+		 * Kahn's algorithm: repeatedly takes a node without remaining
+		 * incoming edges.
+		 */
+		private Topology(GraphIndex index) {
+			int nodeCount = index.getNodeCount();
+			int[] incoming = new int[nodeCount];
+			for (int i = 0, edgeCount = index.getEdgeCount(); i < edgeCount; i++)
+				incoming[index.target(i)]++;
+			int[] queue = new int[nodeCount];
+			int tail = 0;
+			for (int node = 0; node < nodeCount; node++)
+				if (incoming[node] == 0)
+					queue[tail++] = node;
+			for (int head = 0; head < tail; head++) {
+				int node = queue[head];
+				for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++)
+					if (--incoming[index.target(i)] == 0)
+						queue[tail++] = index.target(i);
+			}
+			if (tail < nodeCount) {
+				order = null;
+				rank = null;
+			} else {
+				order = queue;
+				rank = incoming;
+				for (int position = 0; position < nodeCount; position++)
+					rank[order[position]] = position;
+			}
+		}
+	}
+
+	GraphIndex() {
+	}
+
+	public abstract int getNodeCount();
+
+	public abstract int getEdgeCount();
+
+	/**
+	 * Whether any edge has a negative weight, which rules out Dijkstra based
+	 * searches.
+	 */
+	public abstract boolean hasNegativeWeights();
+
+	/**
+	 * Returns the dense id of the node, or -1 when the node is not part of the
+	 * indexed graph.
+	 */
+	public int getNodeId(GraphNode node) {
+		return getNodeId(node.getTag());
+	}
+
+	public abstract int getNodeId(String tag);
+
+	public abstract GraphNode getNode(int id);
+
+	/**
+	 * Position of the first outgoing edge of the node.
+	 */
+	public abstract int firstEdge(int node);
+
+	/**
+	 * Position just after the last outgoing edge of the node.
+	 */
+	public abstract int endEdge(int node);
+
+	public abstract int start(int edge);
+
+	public abstract int target(int edge);
+
+	public abstract float weight(int edge);
+
+	/**
+	 * Returns the edge of the graph at the given position.
+	 */
+	public abstract GraphEdge getEdge(int edge);
+
+	/**
+	 * Position of the first incoming edge of the node. Incoming edges are
+	 * numbered independently of the outgoing edges.
+	 */
+	public int firstInEdge(int node) {
+		return reverse().offsets[node];
+	}
+
+	/**
+	 * Position just after the last incoming edge of the node.
+	 */
+	public int endInEdge(int node) {
+		return reverse().offsets[node + 1];
+	}
+
+	/**
+	 * Start node of the incoming edge at the given position.
+	 */
+	public int source(int inEdge) {
+		return reverse().sources[inEdge];
+	}
+
+	public float inWeight(int inEdge) {
+		return reverse().weights[inEdge];
+	}
+
+	/**
+	 * Hash over the structure and the weights of the index, used to check
+	 * that preprocessed data such as a {@link ContractionHierarchy} belongs to
+	 * this version of the graph.
+	 */
+	public long checksum() {
+		Long result = checksum;
+		if (result == null) {
+			long hash = 1125899906842597L;
+			int nodeCount = getNodeCount();
+			int edgeCount = getEdgeCount();
+			for (int node = 0; node < nodeCount; node++)
+				hash = 31 * hash + firstEdge(node);
+			hash = 31 * hash + edgeCount;
+			for (int i = 0; i < edgeCount; i++)
+				hash = 31 * hash + target(i);
+			for (int i = 0; i < edgeCount; i++)
+				hash = 31 * hash + Float.floatToIntBits(weight(i));
+			checksum = result = hash;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the largest edge weight when every weight is a whole number
+	 * from 0 up to 2<sup>24</sup>, where floats are still exact, or -1
+	 * otherwise. Searches use it to pick a {@link BucketQueue}.
+	 */
+	int maxIntegerWeight() {
+		Integer result = maxIntegerWeight;
+		if (result == null) {
+			int max = 0;
+			for (int i = 0, edgeCount = getEdgeCount(); i < edgeCount && max >= 0; i++) {
+				float weight = weight(i);
+				if (weight >= 0 && weight <= 1 << 24 && weight == (int) weight)
+					max = Math.max(max, (int) weight);
+				else
+					max = -1;
+			}
+			maxIntegerWeight = result = max;
+		}
+		return result;
+	}
+
+	/**
+	 * Whether the graph has no directed cycle. The topological order is
+	 * computed on the first call and kept with the index.
+	 */
+	public boolean isAcyclic() {
+		return topology().order != null;
+	}
+
+	/**
+	 * Returns the nodes in topological order, every edge leading to a node
+	 * further on, or <code>null</code> when the graph has a cycle.
+	 */
+	int[] topologicalOrder() {
+		return topology().order;
+	}
+
+	/**
+	 * Returns the position of every node in the topological order.
+	 */
+	int[] topologicalRank() {
+		return topology().rank;
+	}
+
+	/**
+	 * Returns the strongly connected components of the graph, computed on the
+	 * first call and kept with the index.
+	 */
+	public StronglyConnectedComponents getComponents() {
+		StronglyConnectedComponents result = components;
+		if (result == null)
+			components = result = new StronglyConnectedComponents(this);
+		return result;
+	}
+
+	private Topology topology() {
+		Topology result = topology;
+		if (result == null)
+			topology = result = new Topology(this);
+		return result;
+	}
+
+	private Reverse reverse() {
+		Reverse result = reverse;
+		if (result != null)
+			return result;
+		synchronized (this) {
+			if (reverse == null)
+				reverse = new Reverse(this);
+			return reverse;
+		}
+	}
+
+}
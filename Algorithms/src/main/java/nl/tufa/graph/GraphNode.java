@@ -31,17 +31,44 @@ package nl.tufa.graph;
 public class GraphNode {
 	
 	private String tag = null;
-	protected Float cost = null;
+	private double x = Double.NaN;
+	private double y = Double.NaN;
 	
 	public GraphNode(String tag) throws IllegalArgumentException {
 		if(tag==null) throw new IllegalArgumentException("GraphNode must be fitted with a tag.");
 		this.tag = tag;
 	}
 
+	/**
+	 * Creates a node with coordinates, either planar (x, y) or geographic
+	 * (longitude, latitude in degrees), for use by the {@link Heuristics}.
+	 */
+	public GraphNode(String tag, double x, double y) throws IllegalArgumentException {
+		this(tag);
+		setCoordinates(x, y);
+	}
+
 	public String getTag() {
 		return tag;
 	}
 
+	public boolean hasCoordinates() {
+		return !Double.isNaN(x) && !Double.isNaN(y);
+	}
+
+	public void setCoordinates(double x, double y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
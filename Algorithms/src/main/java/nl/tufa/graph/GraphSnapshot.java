@@ -0,0 +1,273 @@
+package nl.tufa.graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Binary snapshot of the index of a {@link Graph}: the compressed sparse row
+ * arrays, the weights, the node tags with a hash table to look them up and the
+ * node coordinates. {@link #open(Path)} maps the file read-only and returns a
+ * graph that queries the mapped buffers directly, so opening takes the same
+ * time for any size of graph and no node or edge objects are created. The
+ * operating system shares the pages of the file between all processes that
+ * open it.
+ * </p>
+ * <p>
+ * The opened graph is frozen until it is changed: adding nodes or edges first
+ * creates all nodes and edges on the heap, as if the graph had been loaded the
+ * usual way. Until then, {@link Graph#getNode(int)} and
+ * {@link GraphIndex#getEdge(int)} return new objects on every call.
+ * </p>
+ * <p>
+ * The file starts with a header of the magic number, the node count, the edge
+ * count, flags, the size of the tag hash table, the number of tag bytes and the
+ * checksum of the index, followed by the sections in the order of the fields
+ * of {@link OffHeapGraphIndex}. All values are little endian.
+ * </p>
+ * 
+ * <pre>
+ * GraphSnapshot.write(graph, Paths.get("roads.graph"));
+ * Graph roads = GraphSnapshot.open(Paths.get("roads.graph"));
+ * </pre>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Memory-mapped_file
+ */
+public final class GraphSnapshot {
+
+	static final int MAGIC = 0x47534E31;
+
+	private static final int HEADER = 32;
+	private static final int NEGATIVE_WEIGHTS = 1;
+	private static final int COORDINATES = 2;
+
+	private GraphSnapshot() {
+	}
+
+	/**
+	 * Writes the index of the graph to the file, replacing it when it exists.
+	 */
+	public static void write(Graph graph, Path path) throws IOException {
+
+		GraphIndex index = graph.getIndex();
+		int nodeCount = index.getNodeCount();
+		int edgeCount = index.getEdgeCount();
+
+		byte[][] tags = new byte[nodeCount][];
+		double[] coordinates = new double[2 * nodeCount];
+		boolean located = false;
+		long tagBytes = 0;
+		for (int node = 0; node < nodeCount; node++) {
+			GraphNode graphNode = index.getNode(node);
+			tags[node] = graphNode.getTag().getBytes(StandardCharsets.UTF_8);
+			tagBytes += tags[node].length;
+			coordinates[2 * node] = graphNode.getX();
+			coordinates[2 * node + 1] = graphNode.getY();
+			located |= graphNode.hasCoordinates();
+		}
+		if (tagBytes > Integer.MAX_VALUE)
+			throw new IOException("Tags take more than 2GB.");
+		int[] slots = new int[Integer.highestOneBit(Math.max(1, nodeCount)) << 2];
+		for (int node = 0; node < nodeCount; node++) {
+			int slot = hash(tags[node]) & (slots.length - 1);
+			while (slots[slot] != 0)
+				slot = (slot + 1) & (slots.length - 1);
+			slots[slot] = node + 1;
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			Output out = new Output(channel);
+			out.putInt(MAGIC);
+			out.putInt(nodeCount);
+			out.putInt(edgeCount);
+			out.putInt((index.hasNegativeWeights() ? NEGATIVE_WEIGHTS : 0) | (located ? COORDINATES : 0));
+			out.putInt(slots.length);
+			out.putInt((int) tagBytes);
+			out.putLong(index.checksum());
+			for (int node = 0; node < nodeCount; node++)
+				out.putInt(index.firstEdge(node));
+			out.putInt(edgeCount);
+			for (int i = 0; i < edgeCount; i++)
+				out.putInt(index.start(i));
+			for (int i = 0; i < edgeCount; i++)
+				out.putInt(index.target(i));
+			for (int i = 0; i < edgeCount; i++)
+				out.putFloat(index.weight(i));
+			int offset = 0;
+			for (int node = 0; node < nodeCount; node++) {
+				out.putInt(offset);
+				offset += tags[node].length;
+			}
+			out.putInt(offset);
+			for (int slot : slots)
+				out.putInt(slot);
+			if (located) {
+				out.align();
+				for (double value : coordinates)
+					out.putDouble(value);
+			}
+			for (byte[] tag : tags)
+				out.put(tag);
+			out.flush();
+		}
+	}
+
+	/**
+	 * Maps the snapshot read-only and returns a graph on it.
+	 */
+	public static Graph open(Path path) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER)
+				throw new IOException("Not a graph snapshot: " + path);
+			ByteBuffer header = map(channel, 0, HEADER);
+			if (header.getInt(0) != MAGIC)
+				throw new IOException("Not a graph snapshot: " + path);
+			int nodeCount = header.getInt(4);
+			int edgeCount = header.getInt(8);
+			int flags = header.getInt(12);
+			int slotCount = header.getInt(16);
+			int tagBytes = header.getInt(20);
+			long checksum = header.getLong(24);
+
+			long offsets = HEADER;
+			long starts = offsets + 4L * (nodeCount + 1);
+			long targets = starts + 4L * edgeCount;
+			long weights = targets + 4L * edgeCount;
+			long tagOffsets = weights + 4L * edgeCount;
+			long tagSlots = tagOffsets + 4L * (nodeCount + 1);
+			long coordinates = (tagSlots + 4L * slotCount + 7) & ~7L;
+			long tags = ((flags & COORDINATES) != 0 ? coordinates + 16L * nodeCount : tagSlots + 4L * slotCount);
+			if (nodeCount < 0 || edgeCount < 0 || Integer.bitCount(slotCount) != 1 || tags + tagBytes != size)
+				throw new IOException("Corrupt graph snapshot: " + path);
+
+			return new Graph(new OffHeapGraphIndex(nodeCount, edgeCount, (flags & NEGATIVE_WEIGHTS) != 0, checksum,
+					BufferArray.map(channel, offsets, nodeCount + 1), BufferArray.map(channel, starts, edgeCount),
+					BufferArray.map(channel, targets, edgeCount), BufferArray.map(channel, weights, edgeCount),
+					BufferArray.map(channel, tagOffsets, nodeCount + 1), BufferArray.map(channel, tagSlots, slotCount),
+					map(channel, tags, tagBytes),
+					((flags & COORDINATES) != 0 ? map(channel, coordinates, 16L * nodeCount).asDoubleBuffer()
+							: null)));
+		}
+	}
+
+	private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+		if (size > Integer.MAX_VALUE)
+			throw new IOException("Graph snapshot section larger than 2GB.");
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+		return buffer.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * FNV-1a hash of the UTF-8 bytes of a tag, spread over the bits.
+	 */
+	static int hash(byte[] bytes) {
+		int hash = 0x811C9DC5;
+		for (byte b : bytes)
+			hash = (hash ^ (b & 0xff)) * 0x01000193;
+		return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+	}
+
+	/**
+	 * Little endian output through one reused buffer.
+	 */
+	private static final class Output {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+		private long written = 0;
+
+		private Output(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		private void ensure(int bytes) throws IOException {
+			if (buffer.remaining() < bytes)
+				flush();
+		}
+
+		private void putInt(int value) throws IOException {
+			ensure(4);
+			buffer.putInt(value);
+		}
+
+		private void putLong(long value) throws IOException {
+			ensure(8);
+			buffer.putLong(value);
+		}
+
+		private void putFloat(float value) throws IOException {
+			ensure(4);
+			buffer.putFloat(value);
+		}
+
+		private void putDouble(double value) throws IOException {
+			ensure(8);
+			buffer.putDouble(value);
+		}
+
+		private void put(byte[] bytes) throws IOException {
+			for (int i = 0; i < bytes.length;) {
+				ensure(1);
+				int length = Math.min(buffer.remaining(), bytes.length - i);
+				buffer.put(bytes, i, length);
+				i += length;
+			}
+		}
+
+		/**
+		 * Pads the output to a multiple of 8 bytes.
+		 */
+		private void align() throws IOException {
+			while (((written + buffer.position()) & 7) != 0) {
+				ensure(1);
+				buffer.put((byte) 0);
+			}
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining())
+				written += channel.write(buffer);
+			buffer.clear();
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+package nl.tufa.graph;
+
+import java.util.List;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * {@link GraphIndex} in primitive arrays on the heap, built from the nodes
+ * and edges of a {@link Graph}.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ */
+final class HeapGraphIndex extends GraphIndex {
+
+	private final GraphNode[] nodes;
+	private final NodeTable table;
+	private final int[] offsets;
+	private final int[] starts;
+	private final int[] targets;
+	private final float[] weights;
+	private final GraphEdge[] edges;
+	private final boolean negativeWeights;
+
+	HeapGraphIndex(NodeTable table, List<GraphEdge> edges) {
+		this(table, edges.stream().mapToInt(edge -> edge.startId).toArray(),
+				edges.stream().mapToInt(edge -> edge.endId).toArray(), weights(edges),
+				edges.toArray(new GraphEdge[edges.size()]));
+	}
+
+	/**
+	 * Builds the index from the end point ids and weights of the edges, in
+	 * any order.
+	 */
+	HeapGraphIndex(NodeTable table, int[] startIds, int[] endIds, float[] edgeWeights, GraphEdge[] edges) {
+
+		this.table = table;
+		this.nodes = table.toArray();
+
+		// Counting sort of the edges on the id of their start node.
+		int nodeCount = nodes.length;
+		int edgeCount = edges.length;
+		offsets = new int[nodeCount + 1];
+		for (int i = 0; i < edgeCount; i++)
+			offsets[startIds[i] + 1]++;
+		for (int i = 0; i < nodeCount; i++)
+			offsets[i + 1] += offsets[i];
+		int[] fill = new int[nodeCount];
+		System.arraycopy(offsets, 0, fill, 0, nodeCount);
+		starts = new int[edgeCount];
+		targets = new int[edgeCount];
+		weights = new float[edgeCount];
+		this.edges = new GraphEdge[edgeCount];
+		boolean negative = false;
+		for (int i = 0; i < edgeCount; i++) {
+			int position = fill[startIds[i]]++;
+			starts[position] = startIds[i];
+			targets[position] = endIds[i];
+			weights[position] = edgeWeights[i];
+			this.edges[position] = edges[i];
+			negative |= edgeWeights[i] < 0;
+		}
+		negativeWeights = negative;
+	}
+
+	private static float[] weights(List<GraphEdge> edges) {
+		float[] weights = new float[edges.size()];
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = edges.get(i).getWeightValue();
+			if (Float.isNaN(weights[i]))
+				throw new NullPointerException("Edge without weight.");
+		}
+		return weights;
+	}
+
+	@Override
+	public int getNodeCount() {
+		return nodes.length;
+	}
+
+	@Override
+	public int getEdgeCount() {
+		return targets.length;
+	}
+
+	@Override
+	public boolean hasNegativeWeights() {
+		return negativeWeights;
+	}
+
+	@Override
+	public int getNodeId(String tag) {
+		int id = table.id(tag);
+		return (id < nodes.length ? id : -1);
+	}
+
+	@Override
+	public GraphNode getNode(int id) {
+		return nodes[id];
+	}
+
+	@Override
+	public int firstEdge(int node) {
+		return offsets[node];
+	}
+
+	@Override
+	public int endEdge(int node) {
+		return offsets[node + 1];
+	}
+
+	@Override
+	public int start(int edge) {
+		return starts[edge];
+	}
+
+	@Override
+	public int target(int edge) {
+		return targets[edge];
+	}
+
+	@Override
+	public float weight(int edge) {
+		return weights[edge];
+	}
+
+	@Override
+	public GraphEdge getEdge(int edge) {
+		return edges[edge];
+	}
+
+}
@@ -0,0 +1,55 @@
+package nl.tufa.graph;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Lower bound on the cost of the cheapest path between two nodes, identified
+ * by their dense ids, used to direct an A* search towards its target. The
+ * estimate must never exceed the real cost (the heuristic must be
+ * admissible), otherwise the search may return a more expensive path.
+ * </p>
+ * <p>
+ * Ready-made heuristics based on node coordinates are provided by
+ * {@link Heuristics}.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see Graph#setHeuristic(Heuristic)
+ */
+@FunctionalInterface
+public interface Heuristic {
+
+	/**
+	 * Returns a lower bound on the cost of the cheapest path from node to
+	 * target.
+	 */
+	float estimate(int node, int target);
+
+}
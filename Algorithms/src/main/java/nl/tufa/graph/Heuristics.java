@@ -0,0 +1,126 @@
+package nl.tufa.graph;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Factory for the {@link Heuristic}s based on the coordinates of the nodes of
+ * a graph. The coordinates are copied into primitive arrays when the
+ * heuristic is created; nodes without coordinates, or added to the graph
+ * later on, get an estimate of 0 which keeps the heuristic admissible.
+ * </p>
+ * <p>
+ * Both heuristics take a scale: the lowest cost per unit of distance of any
+ * edge in the graph. With edge weights equal to the length of the edges the
+ * scale is 1, with weights in travel time it is 1 divided by the maximum
+ * speed.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ */
+public final class Heuristics {
+
+	/**
+	 * Mean radius of the earth in kilometers.
+	 */
+	public static final double EARTH_RADIUS = 6371.0088;
+
+	private Heuristics() {
+	}
+
+	/**
+	 * Heuristic that always estimates 0, which turns A* into Dijkstra's
+	 * algorithm.
+	 */
+	public static Heuristic none() {
+		return (node, target) -> 0;
+	}
+
+	/**
+	 * Straight line distance between the (x, y) coordinates of the nodes.
+	 */
+	public static Heuristic euclidean(Graph graph) {
+		return euclidean(graph, 1);
+	}
+
+	public static Heuristic euclidean(Graph graph, double scale) {
+		double[][] coordinates = coordinates(graph);
+		double[] xs = coordinates[0];
+		double[] ys = coordinates[1];
+		return (node, target) -> {
+			if (node >= xs.length || target >= xs.length)
+				return 0;
+			double dx = xs[node] - xs[target];
+			double dy = ys[node] - ys[target];
+			double distance = Math.sqrt(dx * dx + dy * dy) * scale;
+			return (Double.isNaN(distance) ? 0 : (float) distance);
+		};
+	}
+
+	/**
+	 * Great circle distance in kilometers between nodes with longitude (x) and
+	 * latitude (y) coordinates in degrees.
+	 */
+	public static Heuristic haversine(Graph graph) {
+		return haversine(graph, 1);
+	}
+
+	public static Heuristic haversine(Graph graph, double scale) {
+		double[][] coordinates = coordinates(graph);
+		double[] longitudes = coordinates[0];
+		double[] latitudes = coordinates[1];
+		for (int i = 0; i < longitudes.length; i++) {
+			longitudes[i] = Math.toRadians(longitudes[i]);
+			latitudes[i] = Math.toRadians(latitudes[i]);
+		}
+		return (node, target) -> {
+			if (node >= longitudes.length || target >= longitudes.length)
+				return 0;
+			double sinLatitude = Math.sin((latitudes[target] - latitudes[node]) / 2);
+			double sinLongitude = Math.sin((longitudes[target] - longitudes[node]) / 2);
+			double a = sinLatitude * sinLatitude
+					+ Math.cos(latitudes[node]) * Math.cos(latitudes[target]) * sinLongitude * sinLongitude;
+			double distance = 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a))) * scale;
+			return (Double.isNaN(distance) ? 0 : (float) distance);
+		};
+	}
+
+	private static double[][] coordinates(Graph graph) {
+		GraphIndex index = graph.getIndex();
+		double[] xs = new double[index.getNodeCount()];
+		double[] ys = new double[index.getNodeCount()];
+		for (int i = 0; i < xs.length; i++) {
+			GraphNode node = index.getNode(i);
+			xs[i] = node.getX();
+			ys[i] = node.getY();
+		}
+		return new double[][] { xs, ys };
+	}
+
+}
@@ -0,0 +1,164 @@
+package nl.tufa.graph;
+
+import java.util.Arrays;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Indexed binary min-heap on dense integer node ids with primitive
+ * <code>float</code> keys. Besides the usual insert and extract-min operations
+ * it supports a decrease-key on a node already in the heap, which is what makes
+ * it suitable as the priority queue of Dijkstra's algorithm: every node is in
+ * the heap at most once and no stale entries are left behind.
+ * </p>
+ * <p>
+ * All operations are O(log n) except <code>contains</code>,
+ * <code>isEmpty</code> and <code>key</code> which are O(1).
+ * </p>
+ * 
+ * @author M.C.Slooff
+ */
+final class IndexedMinHeap {
+
+	private int[] heap;
+	private int[] position;
+	private float[] keys;
+	private int size = 0;
+
+	IndexedMinHeap(int capacity) {
+		heap = new int[Math.max(capacity, 1)];
+		position = new int[Math.max(capacity, 1)];
+		keys = new float[Math.max(capacity, 1)];
+		Arrays.fill(position, -1);
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	boolean contains(int node) {
+		return position[node] >= 0;
+	}
+
+	float key(int node) {
+		return keys[node];
+	}
+
+	float peekKey() {
+		return keys[heap[0]];
+	}
+
+	int peek() {
+		return heap[0];
+	}
+
+	/**
+	 * Inserts the node with the given key, or lowers its key when the node is
+	 * already in the heap with a higher key.
+	 */
+	void insertOrDecrease(int node, float key) {
+		int i = position[node];
+		if (i < 0) {
+			i = size++;
+			heap[i] = node;
+			position[node] = i;
+			keys[node] = key;
+			siftUp(i);
+		} else if (key < keys[node]) {
+			keys[node] = key;
+			siftUp(i);
+		}
+	}
+
+	int poll() {
+		int min = heap[0];
+		int last = heap[--size];
+		position[min] = -1;
+		if (size > 0) {
+			heap[0] = last;
+			position[last] = 0;
+			siftDown(0);
+		}
+		return min;
+	}
+
+	/**
+	 * Empties the heap. Only the nodes still in the heap are touched, so the
+	 * cost is proportional to the current size and not to the capacity.
+	 */
+	void clear() {
+		for (int i = 0; i < size; i++)
+			position[heap[i]] = -1;
+		size = 0;
+	}
+
+	private void siftUp(int i) {
+		int node = heap[i];
+		float key = keys[node];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			int p = heap[parent];
+			if (keys[p] <= key)
+				break;
+			heap[i] = p;
+			position[p] = i;
+			i = parent;
+		}
+		heap[i] = node;
+		position[node] = i;
+	}
+
+	private void siftDown(int i) {
+		int node = heap[i];
+		float key = keys[node];
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			int c = heap[child];
+			int right = child + 1;
+			if (right < size && keys[heap[right]] < keys[c]) {
+				child = right;
+				c = heap[child];
+			}
+			if (key <= keys[c])
+				break;
+			heap[i] = c;
+			position[c] = i;
+			i = child;
+		}
+		heap[i] = node;
+		position[node] = i;
+	}
+
+}
@@ -0,0 +1,98 @@
+package nl.tufa.graph;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * All pairs shortest path costs for sparse graphs with Johnson's algorithm.
+ * One Bellman-Ford pass computes a potential for every node that makes all
+ * edge weights non-negative, after which a Dijkstra search from every node
+ * runs on the reduced weights, in O(V E log V) overall instead of the
+ * O(V<sup>3</sup>) of a {@link DistanceMatrix}.
+ * </p>
+ * <p>
+ * The searches are spread over a fork-join pool; every worker thread reuses
+ * its own heap. Each row of costs is handed to a consumer as soon as it is
+ * ready, so the complete matrix never has to be kept in memory. The consumer
+ * is called by one thread at a time, in no particular order of the rows.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Johnson%27s_algorithm
+ */
+public final class Johnson {
+
+	private Johnson() {
+	}
+
+	/**
+	 * Computes the costs from every node on the common pool.
+	 * 
+	 * @see #compute(Graph, BiConsumer, ForkJoinPool)
+	 */
+	public static void compute(Graph graph, BiConsumer<GraphNode, float[]> consumer)
+			throws NegativeCycleException, InterruptedException {
+		compute(graph, consumer, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Computes the costs from every node on the current index of the graph,
+	 * handing the consumer the start node with the cost to every node, indexed
+	 * by node id (see {@link Graph#getNode(int)}), with
+	 * <code>Float.POSITIVE_INFINITY</code> for nodes that can not be reached.
+	 */
+	public static void compute(Graph graph, BiConsumer<GraphNode, float[]> consumer, ForkJoinPool pool)
+			throws NegativeCycleException, InterruptedException {
+
+		if (consumer == null || pool == null)
+			throw new NullPointerException();
+		GraphIndex index = graph.getIndex();
+		float[] potential = (index.hasNegativeWeights() ? BellmanFord.potentials(index, pool)
+				: new float[index.getNodeCount()]);
+
+		try {
+			pool.submit(() -> IntStream.range(0, index.getNodeCount()).parallel().forEach(source -> {
+				float[] row = DijkstraSearch.all(index, source, potential);
+				synchronized (consumer) {
+					consumer.accept(index.getNode(source), row);
+				}
+			})).get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+}
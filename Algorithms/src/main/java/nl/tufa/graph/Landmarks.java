@@ -0,0 +1,342 @@
+package nl.tufa.graph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * ALT heuristic: A* search with Landmarks and the Triangle inequality. For a
+ * handful of landmark nodes the cost from the landmark to every node and from
+ * every node to the landmark is computed up front. For any landmark
+ * <code>L</code> the triangle inequality gives two lower bounds on the cost
+ * from <code>v</code> to <code>t</code>:
+ * <code>d(L, t) - d(L, v)</code> and <code>d(v, L) - d(t, L)</code>. The
+ * largest of these over all landmarks is used as the {@link Heuristic}.
+ * </p>
+ * <p>
+ * Compared to a {@link ContractionHierarchy} the preprocessing is light, two
+ * searches per landmark, and the tables stay valid lower bounds when edge
+ * weights increase, so a graph keeps its landmarks when the weight of one of
+ * its edges goes up. Lowering a weight may break the bounds and requires new
+ * landmarks.
+ * </p>
+ * <p>
+ * The distance tables are primitive arrays with the landmarks of a node next
+ * to each other, so an estimate reads one contiguous block per node. Edge
+ * weights must be non-negative.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/A*_search_algorithm
+ */
+public final class Landmarks implements Heuristic {
+
+	/**
+	 * Strategy for picking the landmarks.
+	 */
+	public enum Selection {
+
+		/**
+		 * Every next landmark is the node farthest away from the landmarks
+		 * picked so far.
+		 */
+		FARTHEST,
+
+		/**
+		 * Goldberg and Werneck's avoid strategy: grow a shortest path tree from
+		 * a random node and pick a leaf in the subtree where the current
+		 * landmarks give the worst lower bounds.
+		 */
+		AVOID
+	}
+
+	private final int nodeCount;
+	private final long checksum;
+	private final int[] landmarks;
+	private final float[] from;
+	private final float[] to;
+
+	private Landmarks(int nodeCount, long checksum, int[] landmarks, float[] from, float[] to) {
+		this.nodeCount = nodeCount;
+		this.checksum = checksum;
+		this.landmarks = landmarks;
+		this.from = from;
+		this.to = to;
+	}
+
+	public static Landmarks select(Graph graph, int count, Selection selection) throws IllegalArgumentException {
+		return select(graph, count, selection, 0);
+	}
+
+	/**
+	 * Picks at most <code>count</code> landmarks on the current index of the
+	 * graph, the seed fixes the random choices of the selection.
+	 */
+	public static Landmarks select(Graph graph, int count, Selection selection, long seed)
+			throws IllegalArgumentException {
+
+		if (count < 1)
+			throw new IllegalArgumentException("At least one landmark is needed.");
+		if (selection == null)
+			throw new NullPointerException();
+		GraphIndex index = graph.getIndex();
+		if (index.hasNegativeWeights())
+			throw new IllegalArgumentException("Landmarks require non-negative weights.");
+
+		int nodeCount = index.getNodeCount();
+		Random random = new Random(seed);
+		int[] landmarks = new int[Math.min(count, nodeCount)];
+		float[][] forward = new float[landmarks.length][];
+		float[][] backward = new float[landmarks.length][];
+		int selected = 0;
+		while (selected < landmarks.length) {
+			int landmark = (selection == Selection.FARTHEST ? farthest(index, landmarks, forward, selected, random)
+					: avoid(index, landmarks, forward, backward, selected, random));
+			if (landmark < 0)
+				break;
+			landmarks[selected] = landmark;
+			forward[selected] = DijkstraSearch.all(index, landmark, false);
+			backward[selected] = DijkstraSearch.all(index, landmark, true);
+			selected++;
+		}
+
+		// Interleave the tables so the landmarks of a node are adjacent.
+		float[] from = new float[nodeCount * selected];
+		float[] to = new float[nodeCount * selected];
+		for (int l = 0; l < selected; l++) {
+			for (int node = 0; node < nodeCount; node++) {
+				from[node * selected + l] = forward[l][node];
+				to[node * selected + l] = backward[l][node];
+			}
+		}
+		return new Landmarks(nodeCount, index.checksum(), Arrays.copyOf(landmarks, selected), from, to);
+	}
+
+	public int getCount() {
+		return landmarks.length;
+	}
+
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Checksum of the index of the graph the landmarks were selected on.
+	 */
+	public long getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * Returns the node id of the i-th landmark.
+	 */
+	public int getLandmark(int i) {
+		return landmarks[i];
+	}
+
+	@Override
+	public float estimate(int node, int target) {
+		if (node >= nodeCount || target >= nodeCount)
+			return 0;
+		int count = landmarks.length;
+		int v = node * count;
+		int t = target * count;
+		float best = 0;
+		for (int l = 0; l < count; l++) {
+			float fromV = from[v + l];
+			float fromT = from[t + l];
+			if (fromV != Float.POSITIVE_INFINITY && fromT != Float.POSITIVE_INFINITY && fromT - fromV > best)
+				best = fromT - fromV;
+			float toV = to[v + l];
+			float toT = to[t + l];
+			if (toV != Float.POSITIVE_INFINITY && toT != Float.POSITIVE_INFINITY && toV - toT > best)
+				best = toV - toT;
+		}
+		return best;
+	}
+
+	/**
+	 * The node with edges that is farthest away from the landmarks picked so
+	 * far, nodes no landmark reaches first. The first landmark is the node
+	 * farthest away from a random node.
+	 */
+	private static int farthest(GraphIndex index, int[] landmarks, float[][] forward, int selected,
+			Random random) {
+
+		int nodeCount = index.getNodeCount();
+		float[][] distances = forward;
+		int count = selected;
+		if (selected == 0) {
+			int root = randomNode(index, random);
+			if (root < 0)
+				return -1;
+			distances = new float[][] { DijkstraSearch.all(index, root, false) };
+			count = 1;
+		}
+
+		int best = -1;
+		float bestDistance = -1;
+		for (int node = 0; node < nodeCount; node++) {
+			if (!hasEdges(index, node))
+				continue;
+			float nearest = Float.POSITIVE_INFINITY;
+			for (int l = 0; l < count; l++)
+				nearest = Math.min(nearest, distances[l][node]);
+			if (nearest > bestDistance && !isLandmark(landmarks, selected, node)) {
+				best = node;
+				bestDistance = nearest;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Grows a shortest path tree from a random root. Every node weighs the
+	 * difference between its real distance from the root and the lower bound
+	 * the current landmarks give for it. Starting at the heaviest subtree that
+	 * has no landmark yet, the heaviest child is followed down to a leaf,
+	 * which becomes the next landmark.
+	 */
+	private static int avoid(GraphIndex index, int[] landmarks, float[][] forward, float[][] backward, int selected,
+			Random random) {
+
+		int nodeCount = index.getNodeCount();
+		int root = randomNode(index, random);
+		if (root < 0)
+			return -1;
+
+		// Shortest path tree with its nodes in the order they were settled.
+		float[] distance = new float[nodeCount];
+		Arrays.fill(distance, Float.POSITIVE_INFINITY);
+		int[] parent = new int[nodeCount];
+		int[] order = new int[nodeCount];
+		int settled = 0;
+		IndexedMinHeap heap = SearchSpace.get(nodeCount).heap();
+		distance[root] = 0;
+		parent[root] = -1;
+		heap.insertOrDecrease(root, 0);
+		while (!heap.isEmpty()) {
+			int node = heap.poll();
+			order[settled++] = node;
+			for (int i = index.firstEdge(node); i < index.endEdge(node); i++) {
+				int next = index.target(i);
+				float total = distance[node] + index.weight(i);
+				if (total < distance[next]) {
+					distance[next] = total;
+					parent[next] = node;
+					heap.insertOrDecrease(next, total);
+				}
+			}
+		}
+
+		// Subtree weights, children before parents.
+		double[] size = new double[nodeCount];
+		boolean[] covered = new boolean[nodeCount];
+		for (int l = 0; l < selected; l++)
+			covered[landmarks[l]] = true;
+		for (int i = settled - 1; i >= 0; i--) {
+			int node = order[i];
+			float bound = 0;
+			for (int l = 0; l < selected; l++) {
+				float fromRoot = forward[l][root];
+				float fromNode = forward[l][node];
+				if (fromRoot != Float.POSITIVE_INFINITY && fromNode != Float.POSITIVE_INFINITY)
+					bound = Math.max(bound, fromNode - fromRoot);
+				float toRoot = backward[l][root];
+				float toNode = backward[l][node];
+				if (toRoot != Float.POSITIVE_INFINITY && toNode != Float.POSITIVE_INFINITY)
+					bound = Math.max(bound, toRoot - toNode);
+			}
+			size[node] += distance[node] - bound;
+			if (covered[node])
+				size[node] = 0;
+			if (parent[node] >= 0) {
+				covered[parent[node]] |= covered[node];
+				size[parent[node]] += size[node];
+			}
+		}
+
+		int best = -1;
+		for (int i = 0; i < settled; i++) {
+			int node = order[i];
+			if (!covered[node] && (best < 0 || size[node] > size[best]))
+				best = node;
+		}
+		if (best < 0)
+			return farthest(index, landmarks, forward, selected, random);
+
+		// Children in the tree, grouped per parent.
+		int[] offsets = new int[nodeCount + 1];
+		for (int i = 1; i < settled; i++)
+			offsets[parent[order[i]] + 1]++;
+		for (int i = 0; i < nodeCount; i++)
+			offsets[i + 1] += offsets[i];
+		int[] fill = Arrays.copyOf(offsets, nodeCount);
+		int[] children = new int[Math.max(settled - 1, 0)];
+		for (int i = 1; i < settled; i++)
+			children[fill[parent[order[i]]]++] = order[i];
+
+		int node = best;
+		while (offsets[node] < offsets[node + 1]) {
+			int next = children[offsets[node]];
+			for (int i = offsets[node] + 1; i < offsets[node + 1]; i++)
+				if (size[children[i]] > size[next])
+					next = children[i];
+			node = next;
+		}
+		return node;
+	}
+
+	private static int randomNode(GraphIndex index, Random random) {
+		int nodeCount = index.getNodeCount();
+		if (nodeCount == 0)
+			return -1;
+		int start = random.nextInt(nodeCount);
+		for (int i = 0; i < nodeCount; i++) {
+			int node = (start + i) % nodeCount;
+			if (hasEdges(index, node))
+				return node;
+		}
+		return -1;
+	}
+
+	private static boolean hasEdges(GraphIndex index, int node) {
+		return index.firstEdge(node) < index.endEdge(node) || index.firstInEdge(node) < index.endInEdge(node);
+	}
+
+	private static boolean isLandmark(int[] landmarks, int selected, int node) {
+		for (int l = 0; l < selected; l++)
+			if (landmarks[l] == node)
+				return true;
+		return false;
+	}
+
+}
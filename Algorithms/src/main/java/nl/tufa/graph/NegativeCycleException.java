@@ -0,0 +1,62 @@
+package nl.tufa.graph;
+
+import java.util.Collections;
+import java.util.List;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Thrown when a shortest path is asked for in a graph where a cycle with a
+ * negative total weight can be reached from the start node, so that no
+ * cheapest path exists. The cycle is reported in path order: every node is
+ * connected to the next one, and the last node to the first one.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ */
+public class NegativeCycleException extends Exception {
+
+	private static final long serialVersionUID = -3861072713655164781L;
+
+	private final List<GraphNode> cycle;
+
+	public NegativeCycleException(List<GraphNode> cycle) {
+		super("Negative cycle through " + cycle.size() + " node(s).");
+		this.cycle = Collections.unmodifiableList(cycle);
+	}
+
+	/**
+	 * Returns the nodes of the negative cycle in path order.
+	 */
+	public List<GraphNode> getCycle() {
+		return cycle;
+	}
+
+}
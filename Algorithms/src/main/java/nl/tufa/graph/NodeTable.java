@@ -0,0 +1,102 @@
+package nl.tufa.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Bidirectional table between node tags and dense integer node ids. Every tag
+ * is interned once, when the node is first added to a graph or first used as
+ * the start or end of an edge, and keeps its id for the lifetime of the graph.
+ * Ids are handed out consecutively from 0, so they can be used directly as
+ * indexes into primitive arrays.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ */
+final class NodeTable {
+
+	private final Map<String, Integer> ids;
+	private GraphNode[] nodes;
+	private int size = 0;
+
+	NodeTable(int expected) {
+		ids = new HashMap<String, Integer>((int) Math.min((long) (expected / 0.75f) + 1, Integer.MAX_VALUE));
+		nodes = new GraphNode[Math.max(expected, 16)];
+	}
+
+	/**
+	 * Returns the id of the node, assigning the next free id when its tag has
+	 * not been seen before.
+	 */
+	int intern(GraphNode node) {
+		Integer id = ids.get(node.getTag());
+		if (id != null)
+			return id;
+		if (size == nodes.length)
+			nodes = Arrays.copyOf(nodes, nodes.length + (nodes.length >> 1));
+		nodes[size] = node;
+		ids.put(node.getTag(), size);
+		return size++;
+	}
+
+	/**
+	 * Replaces the instance kept for an id by an equal node, used when a node
+	 * that was only known through an edge is added to the graph explicitly.
+	 */
+	void replace(int id, GraphNode node) {
+		nodes[id] = node;
+	}
+
+	/**
+	 * Returns the id of the tag, or -1 when the tag is unknown.
+	 */
+	int id(String tag) {
+		Integer id = ids.get(tag);
+		return (id == null ? -1 : id);
+	}
+
+	GraphNode node(int id) {
+		if (id < 0 || id >= size)
+			throw new IndexOutOfBoundsException("No node with id " + id + ".");
+		return nodes[id];
+	}
+
+	int size() {
+		return size;
+	}
+
+	GraphNode[] toArray() {
+		return Arrays.copyOf(nodes, size);
+	}
+
+}
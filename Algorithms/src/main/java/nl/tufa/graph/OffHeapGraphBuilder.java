@@ -0,0 +1,290 @@
+package nl.tufa.graph;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Builds a {@link Graph} whose adjacency arrays, weights and node tags live in
+ * native memory instead of on the Java heap. No node or edge objects are
+ * created: tags are interned as UTF-8 bytes in an off-heap arena with an open
+ * addressing table of ids, edges are appended to off-heap arrays, and
+ * {@link #build()} sorts them into the compressed sparse row layout of a
+ * {@link GraphIndex} with a counting sort. Storage costs about 12 bytes per
+ * edge while building and again in the built index, against roughly 100 bytes
+ * per edge for a graph of objects, and the garbage collector never scans it.
+ * </p>
+ * <p>
+ * All searches run on the built index directly. The graph is frozen like an
+ * opened {@link GraphSnapshot}: node objects are created on request, and the
+ * first change to the graph moves all nodes and edges to the heap. Use
+ * {@link GraphSnapshot#write(Graph, java.nio.file.Path)} to keep a built graph
+ * for later runs.
+ * </p>
+ * <p>
+ * Duplicate edges are detected by {@link #build()}, with one pass over the
+ * sorted edges, rather than on every {@link #addEdge(String, String, float)}.
+ * </p>
+ * <p>
+ * Native memory for direct buffers is limited to the maximum heap size by
+ * default; start the JVM with <code>-XX:MaxDirectMemorySize</code> to give it
+ * room for large graphs.
+ * </p>
+ * <b>Example</b>
+ * 
+ * <pre>
+ * OffHeapGraphBuilder builder = new OffHeapGraphBuilder(1000000, 5000000);
+ * builder.addEdge("start", "a", 5);
+ * Graph graph = builder.build();
+ * </pre>
+ * 
+ * @author M.C.Slooff
+ */
+public final class OffHeapGraphBuilder {
+
+	// Tags by id as bytes in one arena, with an open addressing table of ids.
+	private ByteBuffer arena;
+	private BufferArray tagOffsets;
+	private BufferArray tagHashes;
+	private BufferArray slots;
+	private int nodeCount = 0;
+
+	private BufferArray starts;
+	private BufferArray targets;
+	private BufferArray weights;
+	private int edgeCount = 0;
+	private boolean negativeWeights = false;
+	private boolean built = false;
+
+	public OffHeapGraphBuilder() {
+		this(16, 16);
+	}
+
+	/**
+	 * Creates a builder sized for the expected number of nodes and edges.
+	 */
+	public OffHeapGraphBuilder(int expectedNodes, int expectedEdges) throws IllegalArgumentException {
+		if (expectedNodes < 0 || expectedEdges < 0)
+			throw new IllegalArgumentException("Expected sizes must not be negative.");
+		int nodes = Math.max(16, expectedNodes);
+		arena = ByteBuffer.allocateDirect(8 * nodes);
+		tagOffsets = BufferArray.allocate(nodes + 1);
+		tagHashes = BufferArray.allocate(nodes);
+		slots = BufferArray.allocate(Integer.highestOneBit(nodes) << 2);
+		int edges = Math.max(16, expectedEdges);
+		starts = BufferArray.allocate(edges);
+		targets = BufferArray.allocate(edges);
+		weights = BufferArray.allocate(edges);
+	}
+
+	/**
+	 * Adds a node without edges and returns its id.
+	 */
+	public int addNode(String tag) throws DuplicatedNodeException, NullPointerException {
+		check();
+		int count = nodeCount;
+		int id = intern(tag);
+		if (id < count)
+			throw new DuplicatedNodeException();
+		return id;
+	}
+
+	/**
+	 * Returns the id of the node with the given tag, or -1 when it has not
+	 * been added.
+	 */
+	public int getNodeId(String tag) {
+		byte[] bytes = tag.getBytes(StandardCharsets.UTF_8);
+		int hash = GraphSnapshot.hash(bytes);
+		int mask = slots.length() - 1;
+		for (int slot = hash & mask, id; (id = slots.getInt(slot) - 1) >= 0; slot = (slot + 1) & mask)
+			if (tagHashes.getInt(id) == hash && equal(bytes, id))
+				return id;
+		return -1;
+	}
+
+	/**
+	 * Adds an edge, adding its end points as nodes when they are new.
+	 */
+	public void addEdge(String startTag, String endTag, float weight)
+			throws NullPointerException, IllegalArgumentException {
+		check();
+		addEdge(intern(startTag), intern(endTag), weight);
+	}
+
+	/**
+	 * Adds an edge between two nodes by their ids.
+	 */
+	public void addEdge(int startId, int endId, float weight)
+			throws IndexOutOfBoundsException, IllegalArgumentException {
+		check();
+		if (startId < 0 || startId >= nodeCount)
+			throw new IndexOutOfBoundsException("No node with id " + startId + ".");
+		if (endId < 0 || endId >= nodeCount)
+			throw new IndexOutOfBoundsException("No node with id " + endId + ".");
+		if (startId == endId)
+			throw new IllegalArgumentException("Edge starts and ends in the same node.");
+		if (edgeCount == starts.length()) {
+			int capacity = grow(edgeCount);
+			starts = starts.copyOf(capacity);
+			targets = targets.copyOf(capacity);
+			weights = weights.copyOf(capacity);
+		}
+		starts.setInt(edgeCount, startId);
+		targets.setInt(edgeCount, endId);
+		weights.setFloat(edgeCount, weight);
+		edgeCount++;
+		negativeWeights |= weight < 0;
+	}
+
+	/**
+	 * Sorts the edges by start node and returns the graph. The builder can
+	 * not be used anymore afterwards.
+	 */
+	public Graph build() throws DuplicateEdgeException, IllegalStateException {
+
+		check();
+		BufferArray offsets = BufferArray.allocate(nodeCount + 1);
+		for (int i = 0; i < edgeCount; i++) {
+			int next = starts.getInt(i) + 1;
+			offsets.setInt(next, offsets.getInt(next) + 1);
+		}
+		for (int node = 0; node < nodeCount; node++)
+			offsets.setInt(node + 1, offsets.getInt(node + 1) + offsets.getInt(node));
+
+		// Counting sort into the index arrays, keeping the order of the edges
+		// of each node.
+		BufferArray fill = BufferArray.allocate(nodeCount);
+		for (int node = 0; node < nodeCount; node++)
+			fill.setInt(node, offsets.getInt(node));
+		BufferArray sortedStarts = BufferArray.allocate(edgeCount);
+		BufferArray sortedTargets = BufferArray.allocate(edgeCount);
+		BufferArray sortedWeights = BufferArray.allocate(edgeCount);
+		for (int i = 0; i < edgeCount; i++) {
+			int start = starts.getInt(i);
+			int position = fill.getInt(start);
+			fill.setInt(start, position + 1);
+			sortedStarts.setInt(position, start);
+			sortedTargets.setInt(position, targets.getInt(i));
+			sortedWeights.setFloat(position, weights.getFloat(i));
+		}
+		starts = targets = weights = null;
+
+		// Marks the targets seen from the current node, reusing the positions
+		// left in fill: those are never negative.
+		for (int node = 0; node < nodeCount; node++) {
+			for (int i = offsets.getInt(node), last = offsets.getInt(node + 1); i < last; i++) {
+				int target = sortedTargets.getInt(i);
+				if (fill.getInt(target) == -node - 1)
+					throw new DuplicateEdgeException();
+				fill.setInt(target, -node - 1);
+			}
+		}
+
+		ByteBuffer tags = arena.duplicate();
+		tags.flip();
+		built = true;
+		return new Graph(new OffHeapGraphIndex(nodeCount, edgeCount, negativeWeights, null, offsets, sortedStarts,
+				sortedTargets, sortedWeights, tagOffsets.copyOf(nodeCount + 1), slots, tags.slice(), null));
+	}
+
+	private void check() throws IllegalStateException {
+		if (built)
+			throw new IllegalStateException("Graph has already been built.");
+	}
+
+	/**
+	 * Returns the id of the tag, adding it as a new node when it is unknown.
+	 */
+	private int intern(String tag) {
+
+		byte[] bytes = tag.getBytes(StandardCharsets.UTF_8);
+		int hash = GraphSnapshot.hash(bytes);
+		int mask = slots.length() - 1;
+		int slot = hash & mask;
+		for (int id; (id = slots.getInt(slot) - 1) >= 0; slot = (slot + 1) & mask)
+			if (tagHashes.getInt(id) == hash && equal(bytes, id))
+				return id;
+
+		int id = nodeCount++;
+		if (nodeCount == tagHashes.length()) {
+			int capacity = grow(nodeCount);
+			tagOffsets = tagOffsets.copyOf(capacity + 1);
+			tagHashes = tagHashes.copyOf(capacity);
+		}
+		if (arena.remaining() < bytes.length) {
+			long capacity = Math.max(2L * arena.capacity(), (long) arena.position() + bytes.length);
+			if (capacity > Integer.MAX_VALUE)
+				throw new IllegalStateException("Tags take more than 2GB.");
+			ByteBuffer larger = ByteBuffer.allocateDirect((int) capacity);
+			arena.flip();
+			larger.put(arena);
+			arena = larger;
+		}
+		arena.put(bytes);
+		tagOffsets.setInt(id + 1, arena.position());
+		tagHashes.setInt(id, hash);
+		slots.setInt(slot, id + 1);
+		if (2 * nodeCount > slots.length())
+			rehash();
+		return id;
+	}
+
+	private boolean equal(byte[] bytes, int id) {
+		int offset = tagOffsets.getInt(id);
+		if (tagOffsets.getInt(id + 1) - offset != bytes.length)
+			return false;
+		for (int i = 0; i < bytes.length; i++)
+			if (arena.get(offset + i) != bytes[i])
+				return false;
+		return true;
+	}
+
+	private void rehash() {
+		if (slots.length() == 1 << 30)
+			throw new IllegalStateException("Too many nodes.");
+		slots = BufferArray.allocate(2 * slots.length());
+		int mask = slots.length() - 1;
+		for (int id = 0; id < nodeCount; id++) {
+			int slot = tagHashes.getInt(id) & mask;
+			while (slots.getInt(slot) != 0)
+				slot = (slot + 1) & mask;
+			slots.setInt(slot, id + 1);
+		}
+	}
+
+	private static int grow(int size) {
+		if (size == Integer.MAX_VALUE - 1)
+			throw new IllegalStateException("Too many nodes or edges.");
+		return (int) Math.min(Integer.MAX_VALUE - 1, size + (long) (size >> 1) + 16);
+	}
+
+}
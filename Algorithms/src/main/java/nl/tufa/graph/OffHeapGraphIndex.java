@@ -0,0 +1,178 @@
+package nl.tufa.graph;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * {@link GraphIndex} outside the Java heap, on the buffers of a memory mapped
+ * {@link GraphSnapshot} or on the native memory filled by an
+ * {@link OffHeapGraphBuilder}. Nothing is copied to the heap: node and edge
+ * objects are only created when asked for, and tags are looked up in an open
+ * addressing hash table of node ids stored next to the tag bytes.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ */
+final class OffHeapGraphIndex extends GraphIndex {
+
+	private final int nodeCount;
+	private final int edgeCount;
+	private final boolean negativeWeights;
+	private final Long storedChecksum;
+	private final BufferArray offsets;
+	private final BufferArray starts;
+	private final BufferArray targets;
+	private final BufferArray weights;
+	private final BufferArray tagOffsets;
+	private final BufferArray tagSlots;
+	private final ByteBuffer tags;
+	private final DoubleBuffer coordinates;
+
+	/**
+	 * Creates an index on the given arrays, with the checksum stored in a
+	 * snapshot or <code>null</code> to compute it when asked for. The
+	 * coordinates may be <code>null</code>.
+	 */
+	OffHeapGraphIndex(int nodeCount, int edgeCount, boolean negativeWeights, Long checksum, BufferArray offsets,
+			BufferArray starts, BufferArray targets, BufferArray weights, BufferArray tagOffsets,
+			BufferArray tagSlots, ByteBuffer tags, DoubleBuffer coordinates) {
+		this.nodeCount = nodeCount;
+		this.edgeCount = edgeCount;
+		this.negativeWeights = negativeWeights;
+		this.storedChecksum = checksum;
+		this.offsets = offsets;
+		this.starts = starts;
+		this.targets = targets;
+		this.weights = weights;
+		this.tagOffsets = tagOffsets;
+		this.tagSlots = tagSlots;
+		this.tags = tags;
+		this.coordinates = coordinates;
+	}
+
+	@Override
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	@Override
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	@Override
+	public boolean hasNegativeWeights() {
+		return negativeWeights;
+	}
+
+	/**
+	 * The checksum stored in the snapshot, computed when it was written, or
+	 * the one computed from the arrays for a built index.
+	 */
+	@Override
+	public long checksum() {
+		return (storedChecksum != null ? storedChecksum : super.checksum());
+	}
+
+	@Override
+	public int getNodeId(String tag) {
+		byte[] bytes = tag.getBytes(StandardCharsets.UTF_8);
+		int mask = tagSlots.length() - 1;
+		for (int slot = GraphSnapshot.hash(bytes) & mask, id; (id = tagSlots.getInt(slot) - 1) >= 0; slot = (slot + 1)
+				& mask)
+			if (equal(bytes, id))
+				return id;
+		return -1;
+	}
+
+	private boolean equal(byte[] bytes, int id) {
+		int offset = tagOffsets.getInt(id);
+		if (tagOffsets.getInt(id + 1) - offset != bytes.length)
+			return false;
+		for (int i = 0; i < bytes.length; i++)
+			if (tags.get(offset + i) != bytes[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Returns a new node object for the id.
+	 */
+	@Override
+	public GraphNode getNode(int id) {
+		if (id < 0 || id >= nodeCount)
+			throw new IndexOutOfBoundsException("No node with id " + id + ".");
+		int offset = tagOffsets.getInt(id);
+		byte[] bytes = new byte[tagOffsets.getInt(id + 1) - offset];
+		for (int i = 0; i < bytes.length; i++)
+			bytes[i] = tags.get(offset + i);
+		String tag = new String(bytes, StandardCharsets.UTF_8);
+		if (coordinates == null || Double.isNaN(coordinates.get(2 * id)))
+			return new GraphNode(tag);
+		return new GraphNode(tag, coordinates.get(2 * id), coordinates.get(2 * id + 1));
+	}
+
+	@Override
+	public int firstEdge(int node) {
+		return offsets.getInt(node);
+	}
+
+	@Override
+	public int endEdge(int node) {
+		return offsets.getInt(node + 1);
+	}
+
+	@Override
+	public int start(int edge) {
+		return starts.getInt(edge);
+	}
+
+	@Override
+	public int target(int edge) {
+		return targets.getInt(edge);
+	}
+
+	@Override
+	public float weight(int edge) {
+		return weights.getFloat(edge);
+	}
+
+	/**
+	 * Returns a new edge object, not part of any graph, for the position.
+	 */
+	@Override
+	public GraphEdge getEdge(int edge) {
+		return new GraphEdge(getNode(start(edge)), getNode(target(edge)), weight(edge));
+	}
+
+}
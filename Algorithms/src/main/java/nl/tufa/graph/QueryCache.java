@@ -0,0 +1,212 @@
+package nl.tufa.graph;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Bounded cache of lowest cost query results of a {@link Graph}, keyed on
+ * start node, end node and query mode, and for {@link QueryMode#ASTAR} on the
+ * heuristic as well, since an inadmissible heuristic changes the results.
+ * Every result is stored with the version of the graph it was computed for
+ * (see {@link Graph#getVersion()}); a result of an older version counts as a
+ * miss and is replaced.
+ * </p>
+ * <p>
+ * The results live in a {@link ConcurrentHashMap}, so lookups from any number
+ * of threads do not block each other, and the counters are
+ * {@link LongAdder}s. Eviction is approximately least recently used: every
+ * result carries the logical time it was last used, and once the cache holds
+ * more than its capacity plus a sixteenth, one thread removes the results
+ * used longest ago until the capacity is reached again. Other threads do not
+ * wait for it.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Cache_replacement_policies#Least_recently_used_(LRU)
+ */
+public final class QueryCache {
+
+	private static final class Key {
+
+		private final int source;
+		private final int target;
+		private final QueryMode mode;
+		private final Object variant;
+
+		private Key(int source, int target, QueryMode mode, Object variant) {
+			this.source = source;
+			this.target = target;
+			this.mode = mode;
+			this.variant = variant;
+		}
+
+		@Override
+		public int hashCode() {
+			return ((31 * source + target) * 31 + mode.ordinal()) * 31 + System.identityHashCode(variant);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return source == other.source && target == other.target && mode == other.mode
+					&& variant == other.variant;
+		}
+	}
+
+	private static final class Result {
+
+		private final long version;
+		private final float cost;
+		private volatile long used;
+
+		private Result(long version, float cost, long used) {
+			this.version = version;
+			this.cost = cost;
+			this.used = used;
+		}
+	}
+
+	private final int capacity;
+	private final int slack;
+	private final ConcurrentHashMap<Key, Result> entries = new ConcurrentHashMap<Key, Result>();
+	// Logical time, advanced by every store; lookups only read it.
+	private final AtomicLong clock = new AtomicLong();
+	private final ReentrantLock eviction = new ReentrantLock();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	QueryCache(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Cache capacity must be positive.");
+		this.capacity = capacity;
+		slack = capacity >> 4;
+	}
+
+	/**
+	 * Returns the cached cost, <code>Float.POSITIVE_INFINITY</code> for no
+	 * path, or <code>Float.NaN</code> when there is no valid result for this
+	 * version of the graph. The variant tells results of the same mode apart,
+	 * such as the heuristic of an A* search, and is compared by identity.
+	 */
+	float get(int source, int target, QueryMode mode, Object variant, long version) {
+		Result entry = entries.get(new Key(source, target, mode, variant));
+		if (entry == null || entry.version != version) {
+			misses.increment();
+			return Float.NaN;
+		}
+		hits.increment();
+		entry.used = clock.get();
+		return entry.cost;
+	}
+
+	void put(int source, int target, QueryMode mode, Object variant, long version, float cost) {
+		Result result = new Result(version, cost, clock.incrementAndGet());
+		// Never replace a result of a newer version.
+		entries.merge(new Key(source, target, mode, variant), result,
+				(old, value) -> (old.version <= value.version ? value : old));
+		if (entries.size() > capacity + slack)
+			evict();
+	}
+
+	/**
+	 * Removes the results used longest ago until the capacity is reached,
+	 * unless another thread is doing so already.
+	 */
+	private void evict() {
+		if (!eviction.tryLock())
+			return;
+		try {
+			int excess = entries.size() - capacity;
+			if (excess <= 0)
+				return;
+			long[] stamps = new long[entries.size() + 16];
+			int count = 0;
+			for (Result result : entries.values()) {
+				if (count == stamps.length)
+					break;
+				stamps[count++] = result.used;
+			}
+			Arrays.sort(stamps, 0, count);
+			long oldest = stamps[Math.min(excess, count) - 1];
+			int removed = 0;
+			for (Map.Entry<Key, Result> entry : entries.entrySet()) {
+				if (removed == excess)
+					break;
+				if (entry.getValue().used <= oldest && entries.remove(entry.getKey(), entry.getValue()))
+					removed++;
+			}
+			evictions.add(removed);
+		} finally {
+			eviction.unlock();
+		}
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Number of results in the cache, including the ones of older versions
+	 * of the graph that have not been replaced or evicted yet. It can exceed
+	 * the capacity by a sixteenth until the next eviction.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Removes all results, the counters are kept.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+}
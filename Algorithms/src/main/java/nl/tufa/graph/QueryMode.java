@@ -0,0 +1,83 @@
+package nl.tufa.graph;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Search strategy used by {@link Graph#getLowestCost(GraphNode, GraphNode)}.
+ * All modes except {@link #LONGEST_PATH} return the same cost, they differ in
+ * how much of the graph is explored to find it.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ */
+public enum QueryMode {
+
+	/**
+	 * Dijkstra's algorithm growing from the start node until the end node is
+	 * settled.
+	 */
+	DIJKSTRA,
+
+	/**
+	 * Two Dijkstra searches, one forward from the start node and one backward
+	 * from the end node over the incoming edges, until they meet. Usually
+	 * settles far fewer nodes than a single search for point-to-point queries.
+	 */
+	BIDIRECTIONAL,
+
+	/**
+	 * A* search directed by the heuristic of the graph, see
+	 * {@link Graph#setHeuristic(Heuristic)}.
+	 */
+	ASTAR,
+
+	/**
+	 * A* search with the lower bounds of the {@link Landmarks} of the graph,
+	 * see {@link Graph#getLandmarks()}. Landmarks are selected on the first
+	 * query.
+	 */
+	ALT,
+
+	/**
+	 * Bidirectional upward search in the contraction hierarchy of the graph,
+	 * see {@link Graph#getHierarchy()}. The hierarchy is built on the first
+	 * query, which therefore takes a lot longer than the ones after it.
+	 */
+	CONTRACTION_HIERARCHY,
+
+	/**
+	 * Not a shortest path: the cost of the most expensive path, the critical
+	 * path when the edges are durations of dependent tasks. Only defined for
+	 * acyclic graphs; on a graph with a cycle queries throw an
+	 * <code>IllegalStateException</code>.
+	 */
+	LONGEST_PATH
+
+}
@@ -0,0 +1,173 @@
+package nl.tufa.graph;
+
+import java.util.Arrays;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Reusable per-thread state of a shortest path search: tentative distances
+ * and the priority queue, a heap or a bucket queue. Every thread has its own
+ * search space, so any number of threads can query the same (unchanging)
+ * graph at the same time without sharing mutable state.
+ * </p>
+ * <p>
+ * Distances are versioned: each search starts a new epoch and a distance only
+ * counts when its stamp equals the current epoch. Starting a search therefore
+ * costs O(1) instead of resetting an entry for every node of the graph.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ */
+final class SearchSpace {
+
+	private static final ThreadLocal<SearchSpace[]> LOCAL = ThreadLocal
+			.withInitial(() -> new SearchSpace[] { new SearchSpace(), new SearchSpace() });
+
+	private float[] distance = new float[0];
+	private int[] predecessor = new int[0];
+	private int[] stamp = new int[0];
+	private int epoch = 0;
+	private IndexedMinHeap heap = new IndexedMinHeap(0);
+	private BucketQueue buckets = null;
+
+	private SearchSpace() {
+	}
+
+	/**
+	 * Returns the search space of the current thread, prepared for a new
+	 * search on a graph with the given number of nodes.
+	 */
+	static SearchSpace get(int nodeCount) {
+		SearchSpace space = LOCAL.get()[0];
+		space.reset(nodeCount);
+		return space;
+	}
+
+	/**
+	 * Returns the second search space of the current thread, for the backward
+	 * half of a bidirectional search.
+	 */
+	static SearchSpace getBackward(int nodeCount) {
+		SearchSpace space = LOCAL.get()[1];
+		space.reset(nodeCount);
+		return space;
+	}
+
+	/**
+	 * Returns the search space of the current thread as left by the last
+	 * search, to read its results.
+	 */
+	static SearchSpace current() {
+		return LOCAL.get()[0];
+	}
+
+	private void reset(int nodeCount) {
+		if (distance.length < nodeCount) {
+			int capacity = Math.max(nodeCount, distance.length + (distance.length >> 1));
+			distance = new float[capacity];
+			predecessor = new int[capacity];
+			stamp = new int[capacity];
+			heap = new IndexedMinHeap(capacity);
+			epoch = 0;
+		} else {
+			heap.clear();
+		}
+		if (++epoch == Integer.MAX_VALUE) {
+			Arrays.fill(stamp, 0);
+			epoch = 1;
+		}
+	}
+
+	IndexedMinHeap heap() {
+		return heap;
+	}
+
+	/**
+	 * Returns the bucket queue of this search space, emptied and prepared for
+	 * the given number of buckets, as an alternative to the heap for small
+	 * integer weights.
+	 */
+	BucketQueue buckets(int bucketCount) {
+		if (buckets == null || buckets.capacity() < distance.length)
+			buckets = new BucketQueue(distance.length, bucketCount);
+		else
+			buckets.reset(bucketCount);
+		return buckets;
+	}
+
+	/**
+	 * Returns the tentative distance of the node in the current search, or
+	 * <code>Float.POSITIVE_INFINITY</code> when the node has not been reached.
+	 */
+	float distance(int node) {
+		return (stamp[node] == epoch ? distance[node] : Float.POSITIVE_INFINITY);
+	}
+
+	void setDistance(int node, float value) {
+		setDistance(node, value, -1);
+	}
+
+	/**
+	 * Sets the tentative distance of the node together with the position of
+	 * the edge it was reached through.
+	 */
+	void setDistance(int node, float value, int edge) {
+		distance[node] = value;
+		predecessor[node] = edge;
+		stamp[node] = epoch;
+	}
+
+	/**
+	 * Returns the position of the edge the node was last reached through, or
+	 * -1 for the start of the search or a node that has not been reached.
+	 */
+	int predecessor(int node) {
+		return (stamp[node] == epoch ? predecessor[node] : -1);
+	}
+
+	/**
+	 * Returns the edge positions of the path to the node, following the
+	 * predecessors of the last search back to its start.
+	 */
+	int[] path(GraphIndex index, int node) {
+		int length = 0;
+		for (int edge = predecessor(node); edge >= 0; edge = predecessor(index.start(edge)))
+			length++;
+		int[] path = new int[length];
+		for (int edge = predecessor(node); edge >= 0; edge = predecessor(index.start(edge)))
+			path[--length] = edge;
+		return path;
+	}
+
+	boolean reached(int node) {
+		return stamp[node] == epoch;
+	}
+
+}
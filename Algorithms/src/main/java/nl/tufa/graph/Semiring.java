@@ -0,0 +1,86 @@
+package nl.tufa.graph;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Algebra of path costs for the searches of a {@link Graph}: the cost of a
+ * path is its first edge weight extended by the weights of the following
+ * edges, starting from {@link #zero()}, and of two paths the better one is
+ * kept. The classic shortest path uses addition and the lower cost; a widest
+ * path uses the minimum capacity and the higher one. Nodes that can not be
+ * reached get {@link #infinity()}.
+ * </p>
+ * <p>
+ * The searches settle nodes in order of {@link #key(Object)}, so extending a
+ * cost must never make it better (for addition: weights must not be
+ * negative), and a better cost must never have a higher key. Keys only guide
+ * the order of the search: costs are always compared exactly with
+ * {@link #better(Object, Object)}.
+ * </p>
+ * <p>
+ * This is the general form, for costs such as exact
+ * {@link nl.tufa.fraction.Fraction}s; {@link DoubleSemiring} and
+ * {@link LongSemiring} are the same for primitive costs without boxing.
+ * Ready-made semirings are provided by {@link Semirings}.
+ * </p>
+ * 
+ * @param <W>
+ *            type of the weights and costs.
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Semiring#Applications
+ */
+public interface Semiring<W> {
+
+	/**
+	 * Cost of the empty path, from a node to itself.
+	 */
+	W zero();
+
+	/**
+	 * Cost of a node that can not be reached.
+	 */
+	W infinity();
+
+	/**
+	 * Returns the cost of a path extended by an edge of the given weight.
+	 */
+	W extend(W cost, W weight);
+
+	/**
+	 * Whether cost <code>a</code> is strictly better than cost <code>b</code>.
+	 */
+	boolean better(W a, W b);
+
+	/**
+	 * Priority of a cost in the search, lower first.
+	 */
+	double key(W cost);
+
+}
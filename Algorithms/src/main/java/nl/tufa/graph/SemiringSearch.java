@@ -0,0 +1,169 @@
+package nl.tufa.graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Dijkstra's algorithm over a {@link Semiring} instead of the addition of
+ * <code>float</code> weights, with one specialized copy of the search for
+ * <code>double</code>, <code>long</code> and object costs so the primitive
+ * searches never box. The weights are read through a function of the edge
+ * position in the {@link GraphIndex}, only for the edges the search relaxes,
+ * so a search that stops early never looks at the rest of the graph.
+ * </p>
+ * <p>
+ * The queue is the <code>float</code> keyed heap of the thread's
+ * {@link SearchSpace}, holding the semiring key of every cost. Rounding to
+ * <code>float</code> can make distinct costs equal, so like
+ * {@link AStarSearch} a node that is reached again with a better cost is put
+ * back in the queue and the result stays exact. A search for one target
+ * stops once the smallest key left exceeds the key of the target's cost.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Dijkstra%27s_algorithm#Specialized_variants
+ */
+final class SemiringSearch {
+
+	private SemiringSearch() {
+	}
+
+	/**
+	 * Returns the costs from the source to all nodes, exact for the target
+	 * and for every node when the target is -1.
+	 */
+	static double[] search(GraphIndex index, int source, int target, IntToDoubleFunction weights,
+			DoubleSemiring semiring)
+			throws IllegalArgumentException {
+
+		int nodeCount = index.getNodeCount();
+		double[] costs = new double[nodeCount];
+		Arrays.fill(costs, semiring.infinity());
+		SearchSpace space = SearchSpace.get(nodeCount);
+		IndexedMinHeap heap = space.heap();
+
+		costs[source] = semiring.zero();
+		space.setDistance(source, 0);
+		heap.insertOrDecrease(source, (float) semiring.key(costs[source]));
+		while (!heap.isEmpty()) {
+			if (target >= 0 && space.reached(target) && heap.peekKey() > (float) semiring.key(costs[target]))
+				break;
+			int node = heap.poll();
+			double cost = costs[node];
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+				int next = index.target(i);
+				double weight = weights.applyAsDouble(i);
+				double total = semiring.extend(cost, weight);
+				if (semiring.better(total, cost))
+					throw new IllegalArgumentException("Edge weight " + weight + " improves the cost of a path.");
+				if (!space.reached(next) || semiring.better(total, costs[next])) {
+					costs[next] = total;
+					space.setDistance(next, 0, i);
+					heap.insertOrDecrease(next, (float) semiring.key(total));
+				}
+			}
+		}
+		return costs;
+	}
+
+	static long[] search(GraphIndex index, int source, int target, IntToLongFunction weights,
+			LongSemiring semiring)
+			throws IllegalArgumentException {
+
+		int nodeCount = index.getNodeCount();
+		long[] costs = new long[nodeCount];
+		Arrays.fill(costs, semiring.infinity());
+		SearchSpace space = SearchSpace.get(nodeCount);
+		IndexedMinHeap heap = space.heap();
+
+		costs[source] = semiring.zero();
+		space.setDistance(source, 0);
+		heap.insertOrDecrease(source, (float) semiring.key(costs[source]));
+		while (!heap.isEmpty()) {
+			if (target >= 0 && space.reached(target) && heap.peekKey() > (float) semiring.key(costs[target]))
+				break;
+			int node = heap.poll();
+			long cost = costs[node];
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+				int next = index.target(i);
+				long weight = weights.applyAsLong(i);
+				long total = semiring.extend(cost, weight);
+				if (semiring.better(total, cost))
+					throw new IllegalArgumentException("Edge weight " + weight + " improves the cost of a path.");
+				if (!space.reached(next) || semiring.better(total, costs[next])) {
+					costs[next] = total;
+					space.setDistance(next, 0, i);
+					heap.insertOrDecrease(next, (float) semiring.key(total));
+				}
+			}
+		}
+		return costs;
+	}
+
+	static <W> List<W> search(GraphIndex index, int source, int target, IntFunction<W> weights,
+			Semiring<W> semiring) throws IllegalArgumentException {
+
+		int nodeCount = index.getNodeCount();
+		@SuppressWarnings("unchecked")
+		W[] costs = (W[]) new Object[nodeCount];
+		Arrays.fill(costs, semiring.infinity());
+		SearchSpace space = SearchSpace.get(nodeCount);
+		IndexedMinHeap heap = space.heap();
+
+		costs[source] = semiring.zero();
+		space.setDistance(source, 0);
+		heap.insertOrDecrease(source, (float) semiring.key(costs[source]));
+		while (!heap.isEmpty()) {
+			if (target >= 0 && space.reached(target) && heap.peekKey() > (float) semiring.key(costs[target]))
+				break;
+			int node = heap.poll();
+			W cost = costs[node];
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+				int next = index.target(i);
+				W weight = weights.apply(i);
+				W total = semiring.extend(cost, weight);
+				if (semiring.better(total, cost))
+					throw new IllegalArgumentException("Edge weight " + weight + " improves the cost of a path.");
+				if (!space.reached(next) || semiring.better(total, costs[next])) {
+					costs[next] = total;
+					space.setDistance(next, 0, i);
+					heap.insertOrDecrease(next, (float) semiring.key(total));
+				}
+			}
+		}
+		return Arrays.asList(costs);
+	}
+
+}
@@ -0,0 +1,236 @@
+package nl.tufa.graph;
+
+import nl.tufa.fraction.Fraction;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Factory for the common {@link Semiring}s. The shortest path semirings add
+ * weights and keep the lowest cost, and require weights that are not
+ * negative. The bottleneck semiring finds the path with the highest minimum
+ * weight, e.g. the widest route for a given capacity per edge, and the
+ * reliability semiring the path with the highest product of weights, e.g. the
+ * most reliable route for edge weights that are probabilities between 0 and 1.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see Graph#getLowestCost(GraphNode, GraphNode, DoubleSemiring,
+ *      java.util.function.ToDoubleFunction)
+ */
+public final class Semirings {
+
+	private static final DoubleSemiring SHORTEST = new DoubleSemiring() {
+
+		@Override
+		public double zero() {
+			return 0;
+		}
+
+		@Override
+		public double infinity() {
+			return Double.POSITIVE_INFINITY;
+		}
+
+		@Override
+		public double extend(double cost, double weight) {
+			return cost + weight;
+		}
+
+		@Override
+		public boolean better(double a, double b) {
+			return a < b;
+		}
+
+		@Override
+		public double key(double cost) {
+			return cost;
+		}
+	};
+
+	private static final LongSemiring SHORTEST_LONG = new LongSemiring() {
+
+		@Override
+		public long zero() {
+			return 0;
+		}
+
+		@Override
+		public long infinity() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public long extend(long cost, long weight) {
+			return Math.addExact(cost, weight);
+		}
+
+		@Override
+		public boolean better(long a, long b) {
+			return a < b;
+		}
+
+		@Override
+		public double key(long cost) {
+			return cost;
+		}
+	};
+
+	private static final Semiring<Fraction> SHORTEST_FRACTION = new Semiring<Fraction>() {
+
+		private final Fraction zero = new Fraction(0L, 1L);
+
+		@Override
+		public Fraction zero() {
+			return zero;
+		}
+
+		@Override
+		public Fraction infinity() {
+			return null;
+		}
+
+		@Override
+		public Fraction extend(Fraction cost, Fraction weight) {
+			return cost.add(weight);
+		}
+
+		@Override
+		public boolean better(Fraction a, Fraction b) {
+			return a.compareTo(b) < 0;
+		}
+
+		@Override
+		public double key(Fraction cost) {
+			return cost.doubleValue();
+		}
+	};
+
+	private static final DoubleSemiring BOTTLENECK = new DoubleSemiring() {
+
+		@Override
+		public double zero() {
+			return Double.POSITIVE_INFINITY;
+		}
+
+		@Override
+		public double infinity() {
+			return Double.NEGATIVE_INFINITY;
+		}
+
+		@Override
+		public double extend(double cost, double weight) {
+			return Math.min(cost, weight);
+		}
+
+		@Override
+		public boolean better(double a, double b) {
+			return a > b;
+		}
+
+		@Override
+		public double key(double cost) {
+			return -cost;
+		}
+	};
+
+	private static final DoubleSemiring RELIABILITY = new DoubleSemiring() {
+
+		@Override
+		public double zero() {
+			return 1;
+		}
+
+		@Override
+		public double infinity() {
+			return 0;
+		}
+
+		@Override
+		public double extend(double cost, double weight) {
+			return cost * weight;
+		}
+
+		@Override
+		public boolean better(double a, double b) {
+			return a > b;
+		}
+
+		@Override
+		public double key(double cost) {
+			return -cost;
+		}
+	};
+
+	private Semirings() {
+	}
+
+	/**
+	 * Sum of the weights, lowest first; unreachable nodes cost
+	 * <code>Double.POSITIVE_INFINITY</code>.
+	 */
+	public static DoubleSemiring shortest() {
+		return SHORTEST;
+	}
+
+	/**
+	 * Exact sum of the weights, lowest first; unreachable nodes cost
+	 * <code>Long.MAX_VALUE</code>. An <code>ArithmeticException</code> is
+	 * thrown when a sum overflows.
+	 */
+	public static LongSemiring shortestLong() {
+		return SHORTEST_LONG;
+	}
+
+	/**
+	 * Exact sum of fractional weights, lowest first; unreachable nodes cost
+	 * <code>null</code>.
+	 */
+	public static Semiring<Fraction> shortestFraction() {
+		return SHORTEST_FRACTION;
+	}
+
+	/**
+	 * Minimum weight along the path, highest first; the start node has
+	 * <code>Double.POSITIVE_INFINITY</code> and unreachable nodes
+	 * <code>Double.NEGATIVE_INFINITY</code>.
+	 */
+	public static DoubleSemiring bottleneck() {
+		return BOTTLENECK;
+	}
+
+	/**
+	 * Product of the weights, highest first, for weights between 0 and 1;
+	 * unreachable nodes get 0.
+	 */
+	public static DoubleSemiring reliability() {
+		return RELIABILITY;
+	}
+
+}
@@ -0,0 +1,115 @@
+package nl.tufa.graph;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * A cheapest path through the graph, kept as the positions of its edges in
+ * the {@link GraphIndex} it was found on. The nodes and edges are looked up
+ * only when the lists are read.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ */
+public final class ShortestPath {
+
+	private final GraphIndex index;
+	private final int source;
+	private final int[] edges;
+	private final float cost;
+
+	ShortestPath(GraphIndex index, int source, int[] edges, float cost) {
+		this.index = index;
+		this.source = source;
+		this.edges = edges;
+		this.cost = cost;
+	}
+
+	public float getCost() {
+		return cost;
+	}
+
+	public GraphNode getStart() {
+		return index.getNode(source);
+	}
+
+	public GraphNode getEnd() {
+		return (edges.length == 0 ? getStart() : index.getNode(index.target(edges[edges.length - 1])));
+	}
+
+	/**
+	 * Returns the nodes on the path, from start to end.
+	 */
+	public List<GraphNode> getNodes() {
+		return new AbstractList<GraphNode>() {
+
+			@Override
+			public GraphNode get(int i) {
+				if (i < 0 || i > edges.length)
+					throw new IndexOutOfBoundsException();
+				return index.getNode(i == 0 ? source : index.target(edges[i - 1]));
+			}
+
+			@Override
+			public int size() {
+				return edges.length + 1;
+			}
+		};
+	}
+
+	/**
+	 * Returns the edges on the path, from start to end.
+	 */
+	public List<GraphEdge> getEdges() {
+		return new AbstractList<GraphEdge>() {
+
+			@Override
+			public GraphEdge get(int i) {
+				return index.getEdge(edges[i]);
+			}
+
+			@Override
+			public int size() {
+				return edges.length;
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		for (GraphNode node : getNodes())
+			result.append(result.length() == 0 ? "" : " -> ").append(node.getTag());
+		return result.append(" (").append(cost).append(')').toString();
+	}
+
+}
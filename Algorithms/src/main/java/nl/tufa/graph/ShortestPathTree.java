@@ -0,0 +1,87 @@
+package nl.tufa.graph;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * All cheapest paths from one start node, as found by a single search: the
+ * cost to every node and the last edge on the path to it, in primitive
+ * arrays indexed by node id. The path to any node is rebuilt on request by
+ * following these edges back to the start, in time proportional to its
+ * length.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Shortest-path_tree
+ */
+public final class ShortestPathTree {
+
+	private final GraphIndex index;
+	private final int source;
+	private final float[] distance;
+	private final int[] predecessor;
+
+	ShortestPathTree(GraphIndex index, int source, float[] distance, int[] predecessor) {
+		this.index = index;
+		this.source = source;
+		this.distance = distance;
+		this.predecessor = predecessor;
+	}
+
+	public GraphNode getStart() {
+		return index.getNode(source);
+	}
+
+	/**
+	 * Returns the cost of the cheapest path to the node, or <code>null</code>
+	 * when there is no such path.
+	 */
+	public Float getCost(GraphNode node) {
+		int id = index.getNodeId(node);
+		return (id < 0 || distance[id] == Float.POSITIVE_INFINITY ? null : distance[id]);
+	}
+
+	/**
+	 * Returns the cheapest path to the node, or <code>null</code> when there
+	 * is no such path.
+	 */
+	public ShortestPath getPath(GraphNode node) {
+		int id = index.getNodeId(node);
+		if (id < 0 || distance[id] == Float.POSITIVE_INFINITY)
+			return null;
+		int length = 0;
+		for (int edge = predecessor[id]; edge >= 0; edge = predecessor[index.start(edge)])
+			length++;
+		int[] edges = new int[length];
+		for (int edge = predecessor[id]; edge >= 0; edge = predecessor[index.start(edge)])
+			edges[--length] = edge;
+		return new ShortestPath(index, source, edges, distance[id]);
+	}
+
+}
@@ -0,0 +1,257 @@
+package nl.tufa.graph;
+
+import java.util.Arrays;
+
+/*
+	Copyright 2020 M.C.Slooff
+	
+	This file is part of 'Algorithms'
+	
+	'Algorithms' is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+	
+	'Algorithms' is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+	
+	You should have received a copy of the GNU General Public License
+	along with 'Algorithms'.  If not, see <https://www.gnu.org/licenses/>.
+	
+	Permission is hereby granted, free of charge, to any person obtaining a copy
+	of this software and associated documentation files (the "Software"), to deal
+	in the Software without restriction, including without limitation the rights
+	to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+	copies of the Software, and to permit persons to whom the Software is
+	furnished to do so, subject to the following conditions:
+	The above copyright notice and this permission notice shall be included in all
+	copies or substantial portions of the Software.	
+*/
+
+/**
+ * <p>
+ * Strongly connected components of the graph of a {@link GraphIndex}: maximal
+ * sets of nodes that can all reach each other. Every node gets the id of its
+ * component, and contracting every component to a single node gives the
+ * condensation of the graph, which is always acyclic.
+ * </p>
+ * <p>
+ * The components are found by Tarjan's algorithm with an explicit stack
+ * instead of recursion, so graphs with millions of nodes in one long path
+ * cannot overflow the call stack. Tarjan's algorithm numbers the components
+ * in reverse topological order: an edge between two components always leads
+ * to a lower id. Together with the longest distance of every component from
+ * the sources and to the sinks of the condensation this gives an O(1) test
+ * that rules out most pairs of nodes where the second can not be reached
+ * from the first, see {@link #mayReach(int, int)}.
+ * </p>
+ * 
+ * @author M.C.Slooff
+ * @see https://en.wikipedia.org/wiki/Tarjan%27s_strongly_connected_components_algorithm
+ * @see https://en.wikipedia.org/wiki/Strongly_connected_component
+ */
+public final class StronglyConnectedComponents {
+
+	private final GraphIndex index;
+	private final int[] component;
+	private final int count;
+	private final int[] offsets;
+	private final int[] successors;
+	private final int[] depth;
+	private final int[] height;
+	private volatile Graph condensation = null;
+
+	StronglyConnectedComponents(GraphIndex index) {
+
+		this.index = index;
+		int nodeCount = index.getNodeCount();
+		component = new int[nodeCount];
+		Arrays.fill(component, -1);
+
+		// Discovery order and lowest reachable discovery order of every node,
+		// the nodes not yet assigned to a component, and the path of the
+		// depth first search with the next edge to follow from each node.
+		int[] order = new int[nodeCount];
+		int[] low = new int[nodeCount];
+		int[] nextEdge = new int[nodeCount];
+		int[] open = new int[nodeCount];
+		int[] path = new int[nodeCount];
+		Arrays.fill(order, -1);
+		int discovered = 0;
+		int components = 0;
+		int openSize = 0;
+
+		for (int root = 0; root < nodeCount; root++) {
+			if (order[root] >= 0)
+				continue;
+			int pathSize = 0;
+			path[pathSize++] = root;
+			order[root] = low[root] = discovered++;
+			nextEdge[root] = index.firstEdge(root);
+			open[openSize++] = root;
+
+			while (pathSize > 0) {
+				int node = path[pathSize - 1];
+				if (nextEdge[node] < index.endEdge(node)) {
+					int next = index.target(nextEdge[node]++);
+					if (order[next] < 0) {
+						order[next] = low[next] = discovered++;
+						nextEdge[next] = index.firstEdge(next);
+						open[openSize++] = next;
+						path[pathSize++] = next;
+					} else if (component[next] < 0) {
+						// Still open, so on the path or in a component below it.
+						low[node] = Math.min(low[node], order[next]);
+					}
+					continue;
+				}
+
+				pathSize--;
+				if (pathSize > 0) {
+					int parent = path[pathSize - 1];
+					low[parent] = Math.min(low[parent], low[node]);
+				}
+				if (low[node] == order[node]) {
+					int member;
+					do {
+						member = open[--openSize];
+						component[member] = components;
+					} while (member != node);
+					components++;
+				}
+			}
+		}
+		count = components;
+
+		// Edges between components, without duplicates, by source component.
+		offsets = new int[count + 1];
+		int[] mark = nextEdge;
+		Arrays.fill(mark, 0, count, -1);
+		for (int node = 0; node < nodeCount; node++)
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++)
+				if (component[index.target(i)] != component[node])
+					offsets[component[node] + 1]++;
+		for (int c = 0; c < count; c++)
+			offsets[c + 1] += offsets[c];
+		int[] fill = Arrays.copyOf(offsets, count);
+		int[] all = new int[offsets[count]];
+		for (int node = 0; node < nodeCount; node++) {
+			int from = component[node];
+			for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++)
+				if (component[index.target(i)] != from)
+					all[fill[from]++] = component[index.target(i)];
+		}
+		int size = 0;
+		for (int c = 0; c < count; c++) {
+			int first = offsets[c];
+			offsets[c] = size;
+			for (int i = first; i < fill[c]; i++) {
+				if (mark[all[i]] != c) {
+					mark[all[i]] = c;
+					all[size++] = all[i];
+				}
+			}
+		}
+		offsets[count] = size;
+		successors = Arrays.copyOf(all, size);
+
+		// Longest distance from a source and to a sink of the condensation;
+		// both strictly change along every edge.
+		depth = new int[count];
+		height = new int[count];
+		for (int c = count - 1; c >= 0; c--)
+			for (int i = offsets[c]; i < offsets[c + 1]; i++)
+				depth[successors[i]] = Math.max(depth[successors[i]], depth[c] + 1);
+		for (int c = 0; c < count; c++)
+			for (int i = offsets[c]; i < offsets[c + 1]; i++)
+				height[c] = Math.max(height[c], height[successors[i]] + 1);
+	}
+
+	/**
+	 * Returns the number of components.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the component of the node with the given dense id.
+	 */
+	public int getComponent(int node) {
+		return component[node];
+	}
+
+	/**
+	 * Returns the component of the node, or -1 when it is not part of the
+	 * graph.
+	 */
+	public int getComponent(GraphNode node) {
+		int id = index.getNodeId(node);
+		return (id < 0 ? -1 : component[id]);
+	}
+
+	/**
+	 * Returns <code>false</code> when there is certainly no path from the
+	 * source node to the target node, both by dense id, in O(1). A result of
+	 * <code>true</code> means there may be a path: always so within one
+	 * component, not necessarily between two.
+	 */
+	public boolean mayReach(int source, int target) {
+		int from = component[source];
+		int to = component[target];
+		return from == to || (from > to && depth[from] < depth[to] && height[from] > height[to]);
+	}
+
+	/**
+	 * Returns the condensation: a graph with a node for every component,
+	 * tagged with its id, and an edge between two components when any edge of
+	 * the graph connects them, weighing the lowest weight of those edges.
+	 */
+	public Graph getCondensation() {
+		Graph result = condensation;
+		if (result != null)
+			return result;
+
+		GraphNode[] nodes = new GraphNode[count];
+		for (int c = 0; c < count; c++)
+			nodes[c] = new GraphNode(Integer.toString(c));
+		float[] weights = new float[successors.length];
+		Arrays.fill(weights, Float.POSITIVE_INFINITY);
+		// The nodes grouped by component, so the position of every successor
+		// of a component is set once and the whole pass stays O(V + E).
+		int[] start = new int[count + 1];
+		for (int node = 0; node < component.length; node++)
+			start[component[node] + 1]++;
+		for (int c = 0; c < count; c++)
+			start[c + 1] += start[c];
+		int[] members = new int[component.length];
+		int[] fill = Arrays.copyOf(start, count);
+		for (int node = 0; node < component.length; node++)
+			members[fill[component[node]]++] = node;
+
+		int[] position = new int[count];
+		for (int from = 0; from < count; from++) {
+			for (int i = offsets[from]; i < offsets[from + 1]; i++)
+				position[successors[i]] = i;
+			for (int m = start[from]; m < start[from + 1]; m++) {
+				int node = members[m];
+				for (int i = index.firstEdge(node), last = index.endEdge(node); i < last; i++) {
+					int to = component[index.target(i)];
+					if (to != from)
+						weights[position[to]] = Math.min(weights[position[to]], index.weight(i));
+				}
+			}
+		}
+		int[] startIds = new int[successors.length];
+		for (int c = 0; c < count; c++)
+			Arrays.fill(startIds, offsets[c], offsets[c + 1], c);
+
+		result = new Graph(count, successors.length);
+		result.load(nodes, startIds, successors.clone(), weights);
+		condensation = result;
+		return result;
+	}
+
+}
@@ -1,10 +1,19 @@
 package nl.tufa.graph.test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Test;
 
 import junit.framework.Assert;
 import nl.tufa.graph.Graph;
+import nl.tufa.graph.GraphEdge;
 import nl.tufa.graph.GraphNode;
+import nl.tufa.graph.QueryCache;
+import nl.tufa.graph.QueryMode;
 
 @SuppressWarnings("deprecation")
 public class Dijkstra {
@@ -66,4 +75,156 @@ public class Dijkstra {
 		}
 		
 	}
+	@Test
+	public void setupLongChain() throws Exception {
+
+		// A chain with a detour at every step used to be explored
+		// exponentially and recursively.
+		Graph g = new Graph();
+		GraphNode start = g.addNode(new GraphNode("n0"));
+		int length = 50000;
+		for (int i = 0; i < length; i++) {
+			g.createEdge("n" + i, "n" + (i + 1), (float) 1);
+			g.createEdge("n" + i, "d" + i, (float) 1);
+			g.createEdge("d" + i, "n" + (i + 1), (float) 1);
+		}
+		GraphNode end = g.addNode(new GraphNode("n" + length));
+
+		Assert.assertEquals((float) length, g.getLowestCost(start, end));
+	}
+
+	@Test
+	public void unreachableEnd() throws Exception {
+
+		Graph g = new Graph();
+		GraphNode start = g.addNode(new GraphNode("start"));
+		GraphNode end = g.addNode(new GraphNode("end"));
+		g.createEdge("end", "start", (float) 1);
+
+		Assert.assertNull(g.getLowestCost(start, end));
+	}
+
+	@Test
+	public void rebuildIndexAfterWeightChange() throws Exception {
+
+		Graph g = new Graph();
+		GraphNode start = g.addNode(new GraphNode("start"));
+		GraphNode end = g.addNode(new GraphNode("end"));
+		GraphEdge direct = g.createEdge("start", "end", (float) 10);
+		g.createEdge("start", "A", (float) 2);
+		g.createEdge("A", "end", (float) 3);
+
+		Assert.assertEquals((float) 5, g.getLowestCost(start, end));
+
+		direct.setWeight((float) 1);
+		g.rebuildIndex();
+		Assert.assertEquals((float) 1, g.getLowestCost(start, end));
+	}
+
+	@Test
+	public void primitiveAndBoxedWeights() throws Exception {
+
+		Graph g = new Graph();
+		GraphNode start = g.addNode(new GraphNode("start"));
+		GraphNode end = g.addNode(new GraphNode("end"));
+		GraphEdge direct = g.createEdge(start, end, (Float) null);
+		Assert.assertNull(direct.getWeight());
+		Assert.assertTrue(Float.isNaN(direct.getWeightValue()));
+
+		direct.setWeight(4f);
+		Assert.assertEquals(Float.valueOf(4), direct.getWeight());
+		Assert.assertEquals(4f, direct.getWeightValue());
+		Assert.assertEquals((float) 4, g.getLowestCost(start, end));
+
+		direct.setWeight(Float.valueOf(2));
+		Assert.assertEquals((float) 2, g.getLowestCost(start, end));
+	}
+
+	@Test
+	public void cachedResultsFollowVersion() throws Exception {
+
+		Graph g = new Graph();
+		GraphNode start = g.addNode(new GraphNode("start"));
+		GraphNode end = g.addNode(new GraphNode("end"));
+		GraphEdge direct = g.createEdge("start", "end", (float) 10);
+		g.createEdge("start", "A", (float) 2);
+		g.createEdge("A", "end", (float) 3);
+		g.setCacheCapacity(2);
+		QueryCache cache = g.getCache();
+
+		Assert.assertEquals((float) 5, g.getLowestCost(start, end));
+		Assert.assertEquals((float) 5, g.getLowestCost(start, end));
+		Assert.assertNull(g.getLowestCost(end, start));
+		Assert.assertNull(g.getLowestCost(end, start));
+		Assert.assertEquals(2, cache.getHits());
+		Assert.assertEquals(2, cache.getMisses());
+
+		long version = g.getVersion();
+		direct.setWeight((float) 1);
+		Assert.assertTrue(g.getVersion() > version);
+		Assert.assertEquals((float) 1, g.getLowestCost(start, end));
+		Assert.assertEquals(3, cache.getMisses());
+		Assert.assertEquals((float) 1, g.getLowestCost(start, end, QueryMode.BIDIRECTIONAL));
+		Assert.assertEquals(1, cache.getEvictions());
+		Assert.assertEquals(2, cache.size());
+
+		g.setCacheCapacity(0);
+		Assert.assertNull(g.getCache());
+	}
+
+	@Test
+	public void cachedResultsFollowHeuristic() throws Exception {
+
+		Graph g = new Graph();
+		GraphNode start = g.addNode(new GraphNode("start"));
+		GraphNode end = g.addNode(new GraphNode("end"));
+		g.createEdge("start", "end", (float) 10);
+		g.createEdge("start", "A", (float) 2);
+		g.createEdge("A", "end", (float) 3);
+		g.setCacheCapacity(4);
+		int a = g.getNodeId("A");
+
+		Assert.assertEquals((float) 5, g.getLowestCost(start, end, QueryMode.ASTAR));
+		// Overestimates the detour, so A* settles the end node through the direct edge.
+		g.setHeuristic((node, target) -> (node == a ? 100 : 0));
+		Assert.assertEquals((float) 10, g.getLowestCost(start, end, QueryMode.ASTAR));
+		Assert.assertEquals((float) 5, g.getLowestCost(start, end));
+		Assert.assertEquals(0, g.getCache().getHits());
+	}
+
+	@Test
+	public void concurrentQueries() throws Exception {
+
+		int size = 60;
+		Graph g = new Graph();
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size)
+					g.createEdge(x + "," + y, (x + 1) + "," + y, (float) (1 + (x * y) % 7));
+				if (y + 1 < size)
+					g.createEdge(x + "," + y, x + "," + (y + 1), (float) (1 + (x + y) % 5));
+			}
+		}
+		GraphNode start = g.getNode(g.getNodeId("0,0"));
+		int queries = 200;
+		Float[] expected = new Float[queries];
+		for (int q = 0; q < queries; q++)
+			expected[q] = g.getLowestCost(start, g.getNode(q * 17 % (size * size)));
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+		for (int t = 0; t < 16; t++) {
+			results.add(pool.submit(() -> {
+				for (int q = 0; q < queries; q++) {
+					if (!expected[q].equals(g.getLowestCost(start, g.getNode(q * 17 % (size * size)))))
+						return false;
+				}
+				return true;
+			}));
+		}
+		for (Future<Boolean> result : results)
+			Assert.assertTrue(result.get());
+		pool.shutdown();
+		Assert.assertNull(g.getStart());
+	}
 }
@@ -0,0 +1,121 @@
+package nl.tufa.graph.test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+import nl.tufa.graph.DuplicateEdgeException;
+import nl.tufa.graph.EdgeListLoader;
+import nl.tufa.graph.Graph;
+import nl.tufa.graph.GraphIndex;
+
+@SuppressWarnings("deprecation")
+public class EdgeListLoaderTest {
+
+	private static Path write(String content) throws IOException {
+		Path path = Files.createTempFile("edges", ".txt");
+		path.toFile().deleteOnExit();
+		Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+		return path;
+	}
+
+	@Test
+	public void loadText() throws Exception {
+
+		Path path = write("# start end weight\n" + "start a 5\n" + "start\tb 2\r\n" + "\n" + "b a 8e0\n"
+				+ "a c 4.0\n" + "a d 2\n" + "b d 7\n" + "  c d 6 \n" + "c end 3\n" + "d end 0.1e1\n" + "\u00e9 start 1");
+		Graph g = EdgeListLoader.load(path);
+		Assert.assertEquals(7, g.getIndex().getNodeCount());
+		Assert.assertEquals(10, g.getIndex().getEdgeCount());
+		Assert.assertEquals((float) 8, g.getLowestCost(g.getNode(g.getNodeId("start")), g.getNode(g.getNodeId("end"))));
+		Assert.assertEquals((float) 9, g.getLowestCost(g.getNode(g.getNodeId("\u00e9")), g.getNode(g.getNodeId("end"))));
+
+		// The loaded graph can be changed like any other graph.
+		g.createEdge("start", "end", (float) 1);
+		Assert.assertEquals((float) 1, g.getLowestCost(g.getNode(g.getNodeId("start")), g.getNode(g.getNodeId("end"))));
+		try {
+			g.createEdge("start", "a", (float) 1);
+			Assert.fail("Duplicate edge not detected.");
+		} catch (DuplicateEdgeException e) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void parseWeights() throws Exception {
+
+		Random random = new Random(19);
+		StringBuilder content = new StringBuilder();
+		String[] weights = new String[2000];
+		// Decimals whose nearest double lies half-way between two floats.
+		String[] halfWay = { "0.987515002489090", "-0.0602093618363142", "0.000108799973531859" };
+		for (int i = 0; i < weights.length; i++) {
+			if (i < halfWay.length) {
+				weights[i] = halfWay[i];
+				content.append("n").append(i).append(" m").append(i).append(' ').append(weights[i]).append('\n');
+				continue;
+			}
+			switch (i % 4) {
+			case 0:
+				weights[i] = Integer.toString(random.nextInt(100000));
+				break;
+			case 1:
+				weights[i] = String.format("%.3f", random.nextDouble() * 1000);
+				break;
+			case 2:
+				weights[i] = Float.toString(random.nextFloat() * 1e-5f);
+				break;
+			default:
+				weights[i] = "-" + Double.toString(random.nextDouble() * 1e30);
+			}
+			content.append("n").append(i).append(" m").append(i).append(' ').append(weights[i]).append('\n');
+		}
+		GraphIndex index = EdgeListLoader.load(write(content.toString())).getIndex();
+		for (int i = 0; i < index.getEdgeCount(); i++) {
+			int edge = Integer.parseInt(index.getNode(index.start(i)).getTag().substring(1));
+			Assert.assertEquals(weights[edge], Float.parseFloat(weights[edge]), index.weight(i));
+		}
+	}
+
+	@Test
+	public void binaryRoundTrip() throws Exception {
+
+		Graph g = EdgeListLoader.load(write("start a 5\nstart b 2\nb a 8\na end 4\nb end 7.5\n"));
+		Path path = Files.createTempFile("edges", ".bin");
+		path.toFile().deleteOnExit();
+		try (OutputStream out = Files.newOutputStream(path)) {
+			EdgeListLoader.writeBinary(g, out);
+		}
+		Graph copy = EdgeListLoader.load(path);
+		Assert.assertEquals(g.getIndex().checksum(), copy.getIndex().checksum());
+		Assert.assertEquals((float) 9, copy.getLowestCost(copy.getNode(0), copy.getNode(copy.getNodeId("end"))));
+	}
+
+	@Test(expected = DuplicateEdgeException.class)
+	public void duplicateEdge() throws Exception {
+		EdgeListLoader.load(write("a b 1\nb c 1\na b 2\n"));
+	}
+
+	@Test(expected = IOException.class)
+	public void malformedLine() throws Exception {
+		EdgeListLoader.load(write("a b 1\nb c\n"));
+	}
+
+	@Test
+	public void nonFiniteWeights() throws Exception {
+		for (String weight : new String[] { "NaN", "-NaN", "Infinity", "-Infinity", "1e39" }) {
+			try {
+				EdgeListLoader.load(write("a b 1\nb c " + weight + "\n"));
+				Assert.fail("Weight " + weight + " not rejected.");
+			} catch (IOException e) {
+				Assert.assertEquals("Malformed weight '" + weight + "' at line 2.", e.getMessage());
+			}
+		}
+	}
+}
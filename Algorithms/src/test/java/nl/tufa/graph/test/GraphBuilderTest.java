@@ -0,0 +1,93 @@
+package nl.tufa.graph.test;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+import nl.tufa.graph.DuplicateEdgeException;
+import nl.tufa.graph.DuplicatedNodeException;
+import nl.tufa.graph.Graph;
+import nl.tufa.graph.GraphBuilder;
+import nl.tufa.graph.GraphEdge;
+import nl.tufa.graph.GraphNode;
+
+@SuppressWarnings("deprecation")
+public class GraphBuilderTest {
+
+	@Test(expected = DuplicatedNodeException.class)
+	public void duplicateNode() throws Exception {
+
+		GraphBuilder builder = new GraphBuilder();
+		builder.addNode("A");
+		builder.addNode("A");
+	}
+
+	@Test(expected = DuplicateEdgeException.class)
+	public void duplicateEdge() throws Exception {
+
+		GraphBuilder builder = new GraphBuilder();
+		builder.addEdge("A", "B", 1);
+		builder.addEdge("A", "B", 2);
+	}
+
+	@Test(expected = DuplicateEdgeException.class)
+	public void duplicateEdgeInGraph() throws Exception {
+
+		Graph g = new Graph();
+		g.createEdge("A", "B", (float) 1);
+		g.addEdge(new GraphEdge(new GraphNode("A"), new GraphNode("B"), (float) 2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void moveEdgeOntoExistingEdge() throws Exception {
+
+		Graph g = new Graph();
+		g.createEdge("A", "B", (float) 1);
+		GraphEdge edge = g.createEdge("A", "C", (float) 1);
+		edge.setEnd(new GraphNode("B"));
+	}
+
+	@Test
+	public void buildGrid() throws Exception {
+
+		int size = 300;
+		GraphBuilder builder = new GraphBuilder(size * size, 2 * size * size);
+		GraphNode start = builder.addNode("0,0");
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size)
+					builder.addEdge(x + "," + y, (x + 1) + "," + y, 1);
+				if (y + 1 < size)
+					builder.addEdge(x + "," + y, x + "," + (y + 1), 2);
+			}
+		}
+		GraphNode end = builder.addNode((size - 1) + "," + (size - 1));
+		Graph g = builder.build();
+
+		Assert.assertEquals((float) 3 * (size - 1), g.getLowestCost(start, end));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void useAfterBuild() throws Exception {
+
+		GraphBuilder builder = new GraphBuilder();
+		builder.build();
+		builder.addNode("A");
+	}
+
+	@Test
+	public void denseNodeIds() throws Exception {
+
+		Graph g = new Graph();
+		g.addNode(new GraphNode("start"));
+		g.createEdge("start", "A", (float) 1);
+		g.createEdge("A", "B", (float) 1);
+		GraphNode b = g.addNode(new GraphNode("B"));
+
+		Assert.assertEquals(0, g.getNodeId("start"));
+		Assert.assertEquals(1, g.getNodeId("A"));
+		Assert.assertEquals(2, g.getNodeId(b));
+		Assert.assertEquals(-1, g.getNodeId("C"));
+		Assert.assertSame(b, g.getNode(2));
+		Assert.assertEquals("A", g.getNode(1).getTag());
+	}
+}
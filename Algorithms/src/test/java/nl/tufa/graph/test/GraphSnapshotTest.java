@@ -0,0 +1,84 @@
+package nl.tufa.graph.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+import nl.tufa.graph.Graph;
+import nl.tufa.graph.GraphNode;
+import nl.tufa.graph.GraphSnapshot;
+import nl.tufa.graph.QueryMode;
+
+@SuppressWarnings("deprecation")
+public class GraphSnapshotTest {
+
+	private static Path snapshot(Graph graph) throws IOException {
+		Path path = Files.createTempFile("graph", ".snapshot");
+		path.toFile().deleteOnExit();
+		GraphSnapshot.write(graph, path);
+		return path;
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+
+		Random random = new Random(23);
+		Graph g = new Graph();
+		for (int i = 0; i < 300; i++)
+			g.addNode(new GraphNode("n\u00e9" + i, random.nextDouble(), random.nextDouble()));
+		for (int i = 0; i < 1500; i++) {
+			try {
+				g.createEdge("n\u00e9" + random.nextInt(300), "n\u00e9" + random.nextInt(300), random.nextFloat() * 10);
+			} catch (Exception e) {
+				// Duplicate edge or self loop, skip.
+			}
+		}
+
+		Graph copy = GraphSnapshot.open(snapshot(g));
+		Assert.assertEquals(g.getIndex().checksum(), copy.getIndex().checksum());
+		Assert.assertEquals(g.getIndex().getEdgeCount(), copy.getIndex().getEdgeCount());
+		Assert.assertEquals(g.getNode("n\u00e97"), copy.getNode("n\u00e97"));
+		Assert.assertEquals(g.getNode("n\u00e97").getX(), copy.getNode("n\u00e97").getX());
+		Assert.assertEquals(7, copy.getNodeId("n\u00e97"));
+		Assert.assertEquals(-1, copy.getNodeId("missing"));
+		Assert.assertNull(copy.getNode("missing"));
+
+		for (QueryMode mode : QueryMode.values()) {
+			if (mode == QueryMode.LONGEST_PATH)
+				continue;
+			for (int i = 0; i < 50; i++) {
+				GraphNode start = g.getNode(random.nextInt(300));
+				GraphNode end = g.getNode(random.nextInt(300));
+				Assert.assertEquals(mode.toString(), g.getLowestCost(start, end, mode),
+						copy.getLowestCost(start, end, mode));
+			}
+		}
+	}
+
+	@Test
+	public void changeAfterOpen() throws Exception {
+
+		Graph g = new Graph();
+		g.createEdge("start", "a", (float) 5);
+		g.createEdge("a", "end", (float) 4);
+		g.createEdge("start", "b", (float) 2);
+		g.createEdge("b", "end", (float) 9);
+
+		Graph copy = GraphSnapshot.open(snapshot(g));
+		GraphNode start = copy.getNode("start");
+		GraphNode end = copy.getNode("end");
+		Assert.assertEquals((float) 9, copy.getLowestCost(start, end));
+		long version = copy.getVersion();
+
+		copy.createEdge("b", "a", (float) 1);
+		Assert.assertTrue(copy.getVersion() > version);
+		Assert.assertEquals((float) 7, copy.getLowestCost(start, end));
+		Assert.assertEquals(5, copy.getIndex().getEdgeCount());
+		Assert.assertSame(copy.getNode("a"), copy.getNode(copy.getNodeId("a")));
+		Assert.assertEquals((float) 9, g.getLowestCost(g.getNode(g.getNodeId("start")), g.getNode(g.getNodeId("end"))));
+	}
+}
@@ -0,0 +1,93 @@
+package nl.tufa.graph.test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+import nl.tufa.graph.DuplicateEdgeException;
+import nl.tufa.graph.DuplicatedNodeException;
+import nl.tufa.graph.Graph;
+import nl.tufa.graph.GraphNode;
+import nl.tufa.graph.GraphSnapshot;
+import nl.tufa.graph.OffHeapGraphBuilder;
+import nl.tufa.graph.QueryMode;
+
+@SuppressWarnings("deprecation")
+public class OffHeapGraphBuilderTest {
+
+	@Test
+	public void matchesHeapGraph() throws Exception {
+
+		Random random = new Random(29);
+		Graph g = new Graph();
+		OffHeapGraphBuilder builder = new OffHeapGraphBuilder();
+		for (int i = 0; i < 3000; i++) {
+			String start = "n\u00e9" + random.nextInt(500);
+			String end = "n\u00e9" + random.nextInt(500);
+			float weight = random.nextInt(1000) / 10f;
+			try {
+				g.createEdge(start, end, weight);
+			} catch (Exception e) {
+				// Duplicate edge or self loop, skip.
+				continue;
+			}
+			builder.addEdge(start, end, weight);
+		}
+		Graph offHeap = builder.build();
+
+		Assert.assertEquals(g.getIndex().getEdgeCount(), offHeap.getIndex().getEdgeCount());
+		Assert.assertEquals(g.getIndex().checksum(), offHeap.getIndex().checksum());
+		Assert.assertEquals(g.getNodeId("n\u00e942"), offHeap.getNodeId("n\u00e942"));
+		Assert.assertEquals(-1, offHeap.getNodeId("missing"));
+		for (QueryMode mode : QueryMode.values()) {
+			if (mode == QueryMode.LONGEST_PATH)
+				continue;
+			for (int i = 0; i < 50; i++) {
+				GraphNode start = g.getNode(random.nextInt(g.getIndex().getNodeCount()));
+				GraphNode end = g.getNode(random.nextInt(g.getIndex().getNodeCount()));
+				Assert.assertEquals(mode.toString(), g.getLowestCost(start, end, mode),
+						offHeap.getLowestCost(start, end, mode));
+			}
+		}
+
+		// Snapshots of an off-heap graph open like any other.
+		Path path = Files.createTempFile("graph", ".snapshot");
+		path.toFile().deleteOnExit();
+		GraphSnapshot.write(offHeap, path);
+		Assert.assertEquals(g.getIndex().checksum(), GraphSnapshot.open(path).getIndex().checksum());
+	}
+
+	@Test
+	public void nodesById() throws Exception {
+
+		OffHeapGraphBuilder builder = new OffHeapGraphBuilder();
+		int start = builder.addNode("start");
+		int a = builder.addNode("a");
+		int end = builder.addNode("end");
+		builder.addEdge(start, a, 2);
+		builder.addEdge(a, end, 3);
+		builder.addEdge("start", "end", 6);
+		try {
+			builder.addNode("a");
+			Assert.fail("Duplicate node not detected.");
+		} catch (DuplicatedNodeException e) {
+			// Expected.
+		}
+		Graph g = builder.build();
+		Assert.assertEquals((float) 5, g.getLowestCost(g.getNode("start"), g.getNode("end")));
+		g.createEdge("a", "b", (float) 1);
+		Assert.assertEquals((float) 3, g.getLowestCost(g.getNode("start"), g.getNode(g.getNodeId("b"))));
+	}
+
+	@Test(expected = DuplicateEdgeException.class)
+	public void duplicateEdge() throws Exception {
+		OffHeapGraphBuilder builder = new OffHeapGraphBuilder();
+		builder.addEdge("a", "b", 1);
+		builder.addEdge("b", "c", 1);
+		builder.addEdge("a", "b", 2);
+		builder.build();
+	}
+}
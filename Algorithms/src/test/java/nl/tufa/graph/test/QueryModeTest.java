@@ -0,0 +1,608 @@
+package nl.tufa.graph.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+import nl.tufa.graph.ContractionHierarchy;
+import nl.tufa.graph.DistanceMatrix;
+import nl.tufa.graph.DuplicateEdgeException;
+import nl.tufa.graph.Graph;
+import nl.tufa.graph.GraphEdge;
+import nl.tufa.graph.GraphIndex;
+import nl.tufa.graph.GraphNode;
+import nl.tufa.graph.Heuristics;
+import nl.tufa.graph.Johnson;
+import nl.tufa.graph.Landmarks;
+import nl.tufa.graph.NegativeCycleException;
+import nl.tufa.graph.QueryMode;
+
+@SuppressWarnings("deprecation")
+public class QueryModeTest {
+
+	private static Graph randomGraph(int nodeCount, int edgeCount, long seed) throws Exception {
+
+		Random random = new Random(seed);
+		Graph g = new Graph();
+		for (int i = 0; i < nodeCount; i++)
+			g.addNode(new GraphNode("n" + i));
+		int created = 0;
+		while (created < edgeCount) {
+			int a = random.nextInt(nodeCount);
+			int b = random.nextInt(nodeCount);
+			if (a == b)
+				continue;
+			try {
+				g.createEdge("n" + a, "n" + b, (float) (1 + random.nextInt(100)));
+				created++;
+			} catch (DuplicateEdgeException e) {
+				// Try another pair.
+			}
+		}
+		return g;
+	}
+
+	private static Graph coordinateGrid(int size, long seed) throws Exception {
+
+		Random random = new Random(seed);
+		Graph g = new Graph();
+		for (int x = 0; x < size; x++)
+			for (int y = 0; y < size; y++)
+				g.addNode(new GraphNode(x + "," + y, x, y));
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				// Weights at least the straight line length keep the
+				// euclidean heuristic admissible.
+				if (x + 1 < size)
+					g.createEdge(x + "," + y, (x + 1) + "," + y, (float) (1 + random.nextInt(3)));
+				if (x > 0)
+					g.createEdge(x + "," + y, (x - 1) + "," + y, (float) (1 + random.nextInt(3)));
+				if (y + 1 < size)
+					g.createEdge(x + "," + y, x + "," + (y + 1), (float) (1 + random.nextInt(3)));
+				if (y > 0)
+					g.createEdge(x + "," + y, x + "," + (y - 1), (float) (1 + random.nextInt(3)));
+			}
+		}
+		return g;
+	}
+
+	private static void compareModes(Graph g, QueryMode mode, int queries) throws Exception {
+
+		Random random = new Random(42);
+		int nodeCount = g.getIndex().getNodeCount();
+		for (int q = 0; q < queries; q++) {
+			GraphNode start = g.getNode(random.nextInt(nodeCount));
+			GraphNode end = g.getNode(random.nextInt(nodeCount));
+			Float expected = g.getLowestCost(start, end, QueryMode.DIJKSTRA);
+			Float value = g.getLowestCost(start, end, mode);
+			Assert.assertEquals(start.getTag() + "-" + end.getTag(), expected, value);
+		}
+	}
+
+	@Test
+	public void bidirectionalOnSmallGraph() throws Exception {
+
+		Graph g = new Graph();
+		g.setQueryMode(QueryMode.BIDIRECTIONAL);
+		GraphNode start = g.addNode(new GraphNode("start"));
+		GraphNode end = g.addNode(new GraphNode("end"));
+
+		g.createEdge("start", "a", (float) 5);
+		g.createEdge("start", "b", (float) 2);
+		g.createEdge("b", "a", (float) 8);
+		g.createEdge("a", "c", (float) 4);
+		g.createEdge("a", "d", (float) 2);
+		g.createEdge("b", "d", (float) 7);
+		g.createEdge("c", "d", (float) 6);
+		g.createEdge("c", "end", (float) 3);
+		g.createEdge("d", "end", (float) 1);
+
+		Assert.assertEquals((float) 8, g.getLowestCost(start, end));
+		Assert.assertEquals((float) 0, g.getLowestCost(start, start));
+		Assert.assertNull(g.getLowestCost(end, start));
+	}
+
+	@Test
+	public void bidirectionalMatchesDijkstra() throws Exception {
+
+		Graph g = randomGraph(2000, 6000, 1);
+		compareModes(g, QueryMode.BIDIRECTIONAL, 500);
+	}
+
+	@Test
+	public void acyclicGraph() throws Exception {
+
+		// Edges only lead to nodes with a higher number, some with a negative
+		// weight.
+		int nodeCount = 500;
+		Random random = new Random(37);
+		Graph g = new Graph();
+		for (int i = 0; i < nodeCount; i++)
+			g.addNode(new GraphNode("n" + i));
+		float[][] weight = new float[nodeCount][nodeCount];
+		for (int e = 0; e < 3000; e++) {
+			int a = random.nextInt(nodeCount - 1);
+			int b = a + 1 + random.nextInt(Math.min(20, nodeCount - a - 1));
+			if (weight[a][b] == 0) {
+				// 0 marks a missing edge.
+				weight[a][b] = random.nextInt(49) - 5;
+				if (weight[a][b] >= 0)
+					weight[a][b]++;
+				g.createEdge("n" + a, "n" + b, weight[a][b]);
+			}
+		}
+		Assert.assertTrue(g.getIndex().isAcyclic());
+
+		for (int q = 0; q < 100; q++) {
+			int a = random.nextInt(nodeCount);
+			float[] lowest = new float[nodeCount];
+			float[] highest = new float[nodeCount];
+			for (int i = 0; i < nodeCount; i++) {
+				lowest[i] = (i == a ? 0 : Float.POSITIVE_INFINITY);
+				highest[i] = (i == a ? 0 : Float.NEGATIVE_INFINITY);
+				for (int j = a; j < i; j++) {
+					if (weight[j][i] != 0 && lowest[j] != Float.POSITIVE_INFINITY) {
+						lowest[i] = Math.min(lowest[i], lowest[j] + weight[j][i]);
+						highest[i] = Math.max(highest[i], highest[j] + weight[j][i]);
+					}
+				}
+			}
+			int b = random.nextInt(nodeCount);
+			GraphNode start = g.getNode("n" + a);
+			GraphNode end = g.getNode("n" + b);
+			Float expected = (lowest[b] == Float.POSITIVE_INFINITY ? null : lowest[b]);
+			Assert.assertEquals(expected, g.getLowestCost(start, end, QueryMode.DIJKSTRA));
+			Assert.assertEquals(expected, g.getLowestCost(start, end, QueryMode.BIDIRECTIONAL));
+			Float longest = (highest[b] == Float.NEGATIVE_INFINITY ? null : highest[b]);
+			Assert.assertEquals(longest, g.getLowestCost(start, end, QueryMode.LONGEST_PATH));
+		}
+
+		// A cycle drops the topological order with the index.
+		g.createEdge("n" + (nodeCount - 1), "n0", (float) 1);
+		Assert.assertFalse(g.getIndex().isAcyclic());
+		try {
+			g.getLowestCost(g.getNode("n0"), g.getNode("n1"), QueryMode.LONGEST_PATH);
+			Assert.fail("Longest path in a cyclic graph.");
+		} catch (IllegalStateException e) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void bucketQueueForIntegerWeights() throws Exception {
+
+		// Integer weights including 0 take the bucket queue, a fraction takes
+		// the heap again.
+		Graph g = randomGraph(1000, 4000, 5);
+		g.createEdge("n1", "n2", (float) 0);
+		compareModes(g, QueryMode.BIDIRECTIONAL, 300);
+		g.createEdge("n2", "n3", (float) 0.5);
+		compareModes(g, QueryMode.BIDIRECTIONAL, 300);
+
+		// Distances beyond 2^24 are no longer exact integers, the search
+		// falls back to the heap. Edges both ways keep it off the acyclic
+		// search.
+		Graph chain = new Graph();
+		for (int i = 0; i < 20000; i++) {
+			chain.createEdge("n" + i, "n" + (i + 1), (float) 4096);
+			chain.createEdge("n" + (i + 1), "n" + i, (float) 4096);
+		}
+		Assert.assertEquals((float) 20000 * 4096,
+				chain.getLowestCost(chain.getNode(chain.getNodeId("n0")), chain.getNode(chain.getNodeId("n20000"))));
+		Assert.assertEquals(10, chain.getShortestPath(chain.getNode(chain.getNodeId("n5")),
+				chain.getNode(chain.getNodeId("n15"))).getEdges().size());
+	}
+
+	@Test
+	public void bidirectionalOnLargerGraph() throws Exception {
+
+		Graph g = randomGraph(50000, 150000, 2);
+		compareModes(g, QueryMode.BIDIRECTIONAL, 200);
+	}
+
+	@Test
+	public void aStarMatchesDijkstra() throws Exception {
+
+		Graph g = coordinateGrid(60, 3);
+		g.setHeuristic(Heuristics.euclidean(g));
+		compareModes(g, QueryMode.ASTAR, 500);
+	}
+
+	@Test
+	public void aStarWithoutHeuristic() throws Exception {
+
+		Graph g = randomGraph(2000, 6000, 4);
+		compareModes(g, QueryMode.ASTAR, 200);
+	}
+
+	@Test
+	public void aStarOnGeographicGraph() throws Exception {
+
+		Graph g = new Graph();
+		g.setQueryMode(QueryMode.ASTAR);
+		GraphNode amsterdam = g.addNode(new GraphNode("Amsterdam", 4.9041, 52.3676));
+		g.addNode(new GraphNode("Utrecht", 5.1214, 52.0907));
+		g.addNode(new GraphNode("Arnhem", 5.8987, 51.9851));
+		g.addNode(new GraphNode("Amersfoort", 5.3878, 52.1561));
+		GraphNode enschede = g.addNode(new GraphNode("Enschede", 6.8937, 52.2215));
+
+		// Road distances in kilometers.
+		g.createEdge("Amsterdam", "Utrecht", (float) 45);
+		g.createEdge("Amsterdam", "Amersfoort", (float) 52);
+		g.createEdge("Utrecht", "Arnhem", (float) 64);
+		g.createEdge("Amersfoort", "Arnhem", (float) 50);
+		g.createEdge("Arnhem", "Enschede", (float) 97);
+		g.createEdge("Amersfoort", "Enschede", (float) 118);
+		g.setHeuristic(Heuristics.haversine(g));
+
+		Assert.assertTrue(Heuristics.haversine(g).estimate(0, 4) < 170);
+		Assert.assertTrue(Heuristics.haversine(g).estimate(0, 4) > 130);
+		Assert.assertEquals((float) 170, g.getLowestCost(amsterdam, enschede));
+	}
+
+	@Test
+	public void aStarOnLargerGrid() throws Exception {
+
+		Graph g = coordinateGrid(300, 5);
+		g.setHeuristic(Heuristics.euclidean(g));
+		compareModes(g, QueryMode.ASTAR, 200);
+	}
+
+	@Test
+	public void hierarchyMatchesDijkstra() throws Exception {
+
+		Graph g = randomGraph(500, 1500, 6);
+		compareModes(g, QueryMode.CONTRACTION_HIERARCHY, 500);
+
+		g = coordinateGrid(40, 6);
+		compareModes(g, QueryMode.CONTRACTION_HIERARCHY, 500);
+	}
+
+	@Test
+	public void hierarchySaveAndLoad() throws Exception {
+
+		Graph g = coordinateGrid(30, 8);
+		ContractionHierarchy hierarchy = g.getHierarchy();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		hierarchy.save(out);
+
+		Graph copy = coordinateGrid(30, 8);
+		copy.setHierarchy(ContractionHierarchy.load(new ByteArrayInputStream(out.toByteArray())));
+		Assert.assertEquals(hierarchy.getEdgeCount(), copy.getHierarchy().getEdgeCount());
+		compareModes(copy, QueryMode.CONTRACTION_HIERARCHY, 200);
+	}
+
+	@Test
+	public void hierarchyPathUnpacksShortcuts() throws Exception {
+
+		Graph g = coordinateGrid(40, 7);
+		GraphIndex index = g.getIndex();
+		ContractionHierarchy hierarchy = g.getHierarchy();
+		Random random = new Random(7);
+		for (int q = 0; q < 200; q++) {
+			int source = random.nextInt(index.getNodeCount());
+			int target = random.nextInt(index.getNodeCount());
+			int[] path = hierarchy.path(source, target);
+			Assert.assertEquals(source, path[0]);
+			Assert.assertEquals(target, path[path.length - 1]);
+			float cost = 0;
+			for (int i = 0; i + 1 < path.length; i++) {
+				int edge = index.firstEdge(path[i]);
+				while (index.target(edge) != path[i + 1])
+					edge++;
+				Assert.assertTrue(edge < index.endEdge(path[i]));
+				cost += index.weight(edge);
+			}
+			Assert.assertEquals(hierarchy.query(source, target), cost);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void hierarchyOfOtherGraph() throws Exception {
+
+		ContractionHierarchy hierarchy = coordinateGrid(30, 8).getHierarchy();
+		coordinateGrid(30, 9).setHierarchy(hierarchy);
+	}
+
+	@Test
+	public void hierarchyOnLargerGrid() throws Exception {
+
+		Graph g = coordinateGrid(100, 5);
+		compareModes(g, QueryMode.CONTRACTION_HIERARCHY, 200);
+	}
+
+	@Test
+	public void altMatchesDijkstra() throws Exception {
+
+		Graph g = randomGraph(2000, 6000, 10);
+		compareModes(g, QueryMode.ALT, 500);
+
+		g = coordinateGrid(60, 10);
+		g.setLandmarks(Landmarks.select(g, 8, Landmarks.Selection.AVOID));
+		Assert.assertEquals(8, g.getLandmarks().getCount());
+		compareModes(g, QueryMode.ALT, 500);
+	}
+
+	@Test
+	public void landmarksAfterWeightIncrease() throws Exception {
+
+		Graph g = new Graph();
+		GraphNode start = g.addNode(new GraphNode("start"));
+		GraphNode end = g.addNode(new GraphNode("end"));
+		GraphEdge direct = g.createEdge("start", "end", (float) 3);
+		g.createEdge("start", "a", (float) 2);
+		g.createEdge("a", "end", (float) 2);
+		Landmarks landmarks = Landmarks.select(g, 2, Landmarks.Selection.FARTHEST);
+		g.setLandmarks(landmarks);
+		Assert.assertEquals((float) 3, g.getLowestCost(start, end, QueryMode.ALT));
+
+		direct.setWeight((float) 10);
+		Assert.assertSame(landmarks, g.getLandmarks());
+		Assert.assertEquals((float) 4, g.getLowestCost(start, end, QueryMode.ALT));
+
+		direct.setWeight((float) 1);
+		Assert.assertNotSame(landmarks, g.getLandmarks());
+		Assert.assertEquals((float) 1, g.getLowestCost(start, end, QueryMode.ALT));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void landmarksOfOtherGraph() throws Exception {
+
+		Landmarks landmarks = Landmarks.select(coordinateGrid(30, 8), 4, Landmarks.Selection.FARTHEST);
+		coordinateGrid(30, 9).setLandmarks(landmarks);
+	}
+
+	private static void compareLowestCosts(Graph g, GraphNode start, ForkJoinPool pool) throws Exception {
+
+		float[] costs = g.getLowestCosts(start, pool);
+		Assert.assertEquals(g.getIndex().getNodeCount(), costs.length);
+		for (int id = 0; id < costs.length; id++) {
+			Float expected = g.getLowestCost(start, g.getNode(id), QueryMode.DIJKSTRA);
+			Assert.assertEquals(start.getTag() + "-" + g.getNode(id).getTag(),
+					expected == null ? Float.POSITIVE_INFINITY : expected.floatValue(), costs[id]);
+		}
+	}
+
+	@Test
+	public void deltaSteppingMatchesDijkstra() throws Exception {
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Graph g = randomGraph(2000, 6000, 11);
+			compareLowestCosts(g, g.getNode(0), pool);
+			compareLowestCosts(g, g.getNode(1234), pool);
+
+			g = coordinateGrid(60, 11);
+			compareLowestCosts(g, g.getNode(0), pool);
+			compareLowestCosts(g, g.getNode(1800), ForkJoinPool.commonPool());
+		} finally {
+			pool.shutdown();
+		}
+
+		float[] costs = randomGraph(10, 20, 12).getLowestCosts(new GraphNode("unknown"));
+		Assert.assertEquals(10, costs.length);
+		for (float cost : costs)
+			Assert.assertEquals(Float.POSITIVE_INFINITY, cost);
+
+		// An infinite weight must not stretch the buckets to infinity.
+		Graph g = randomGraph(200, 600, 14);
+		g.createEdge("blocked", g.getNode(0).getTag(), Float.POSITIVE_INFINITY);
+		g.createEdge(g.getNode(5).getTag(), "blocked", Float.POSITIVE_INFINITY);
+		compareLowestCosts(g, g.getNode(5), ForkJoinPool.commonPool());
+		Assert.assertEquals(Float.POSITIVE_INFINITY, g.getLowestCosts(g.getNode(5))[g.getNodeId("blocked")]);
+	}
+
+	@Test
+	public void negativeWeights() throws Exception {
+
+		Graph g = new Graph();
+		g.setQueryMode(QueryMode.BIDIRECTIONAL);
+		GraphNode start = g.addNode(new GraphNode("start"));
+		GraphNode end = g.addNode(new GraphNode("end"));
+		g.createEdge("start", "a", (float) 4);
+		g.createEdge("start", "b", (float) 2);
+		g.createEdge("a", "b", (float) -3);
+		g.createEdge("b", "end", (float) 2);
+		Assert.assertEquals((float) 3, g.getLowestCost(start, end));
+		Assert.assertNull(g.getLowestCost(end, start));
+
+		// Edges only run to higher numbers, so there are no cycles; costs
+		// follow from relaxing the nodes in order.
+		Random random = new Random(13);
+		int nodeCount = 300;
+		g = new Graph();
+		for (int i = 0; i < nodeCount; i++)
+			g.addNode(new GraphNode("n" + i));
+		float[] expected = new float[nodeCount];
+		Arrays.fill(expected, Float.POSITIVE_INFINITY);
+		expected[0] = 0;
+		for (int a = 0; a < nodeCount; a++) {
+			for (int b = a + 1; b < nodeCount; b++) {
+				if (random.nextInt(20) != 0)
+					continue;
+				float weight = (float) (random.nextInt(100) - 50);
+				g.createEdge("n" + a, "n" + b, weight);
+				expected[b] = Math.min(expected[b], expected[a] + weight);
+			}
+		}
+		float[] costs = g.getLowestCosts(g.getNode("n0"));
+		for (int i = 0; i < nodeCount; i++)
+			Assert.assertEquals("n" + i, expected[i], costs[g.getNodeId("n" + i)]);
+	}
+
+	@Test
+	public void negativeCycle() throws Exception {
+
+		Graph g = new Graph();
+		GraphNode start = g.addNode(new GraphNode("start"));
+		GraphNode end = g.addNode(new GraphNode("end"));
+		g.createEdge("start", "a", (float) 1);
+		g.createEdge("a", "b", (float) 2);
+		g.createEdge("b", "c", (float) -4);
+		g.createEdge("c", "a", (float) 1);
+		g.createEdge("c", "end", (float) 1);
+		g.createEdge("end", "start", (float) 2);
+		try {
+			g.getLowestCost(start, end);
+			Assert.fail("Negative cycle not detected.");
+		} catch (NegativeCycleException e) {
+			Assert.assertEquals(3, e.getCycle().size());
+			int a = e.getCycle().indexOf(g.getNode(g.getNodeId("a")));
+			Assert.assertTrue(a >= 0);
+			Assert.assertEquals("b", e.getCycle().get((a + 1) % 3).getTag());
+			Assert.assertEquals("c", e.getCycle().get((a + 2) % 3).getTag());
+		}
+
+		// Not reachable from the end node.
+		g = new Graph();
+		end = g.addNode(new GraphNode("end"));
+		g.addNode(new GraphNode("start"));
+		g.createEdge("start", "a", (float) -1);
+		g.createEdge("a", "start", (float) -1);
+		Assert.assertNull(g.getLowestCost(end, g.getNode(g.getNodeId("start"))));
+	}
+
+	@Test
+	public void distanceMatrixMatchesDijkstra() throws Exception {
+
+		Graph g = randomGraph(300, 1500, 14);
+		DistanceMatrix onHeap = DistanceMatrix.compute(g, false, ForkJoinPool.commonPool());
+		DistanceMatrix offHeap = DistanceMatrix.compute(g, true, ForkJoinPool.commonPool());
+		Assert.assertFalse(onHeap.isOffHeap());
+		Assert.assertTrue(offHeap.isOffHeap());
+		for (int from = 0; from < 300; from += 7) {
+			float[] costs = g.getLowestCosts(g.getNode(from));
+			for (int to = 0; to < 300; to++) {
+				Assert.assertEquals(costs[to], onHeap.distance(from, to));
+				Assert.assertEquals(costs[to], offHeap.distance(from, to));
+			}
+		}
+		Assert.assertEquals((float) 0, onHeap.distance("n1", "n1"));
+		Assert.assertEquals(g.getLowestCost(g.getNode("n3"), g.getNode("n250")), onHeap.distance("n3", "n250"));
+
+		g = new Graph();
+		g.createEdge("a", "b", (float) 2);
+		g.createEdge("b", "c", (float) -3);
+		g.createEdge("c", "a", (float) 2);
+		g.createEdge("d", "a", (float) 1);
+		DistanceMatrix matrix = DistanceMatrix.compute(g);
+		Assert.assertEquals((float) -1, matrix.distance("a", "c"));
+		Assert.assertEquals(Float.POSITIVE_INFINITY, matrix.distance("a", "d"));
+
+		g.createEdge("c", "b", (float) 0);
+		try {
+			DistanceMatrix.compute(g);
+			Assert.fail("Negative cycle not detected.");
+		} catch (NegativeCycleException e) {
+			Assert.assertEquals(2, e.getCycle().size());
+			Assert.assertTrue(e.getCycle().contains(g.getNode(g.getNodeId("b"))));
+			Assert.assertTrue(e.getCycle().contains(g.getNode(g.getNodeId("c"))));
+		}
+
+		// A negative cycle hidden in a larger strongly connected graph.
+		g = randomGraph(120, 600, 16);
+		for (int i = 0; i < 5; i++)
+			g.createEdge("m" + i, "m" + ((i + 1) % 5), (float) (i == 4 ? -9 : 1));
+		g.createEdge("n0", "m0", (float) 1);
+		g.createEdge("m0", "n0", (float) 1);
+		try {
+			DistanceMatrix.compute(g);
+			Assert.fail("Negative cycle not detected.");
+		} catch (NegativeCycleException e) {
+			List<GraphNode> cycle = e.getCycle();
+			GraphIndex index = g.getIndex();
+			float weight = 0;
+			for (int i = 0; i < cycle.size(); i++) {
+				int from = index.getNodeId(cycle.get(i));
+				int to = index.getNodeId(cycle.get((i + 1) % cycle.size()));
+				int edge = index.firstEdge(from);
+				while (edge < index.endEdge(from) && index.target(edge) != to)
+					edge++;
+				Assert.assertTrue(edge < index.endEdge(from));
+				weight += index.weight(edge);
+			}
+			Assert.assertTrue(weight < 0);
+		}
+	}
+
+	@Test
+	public void johnsonMatchesDistanceMatrix() throws Exception {
+
+		// Shifting weights by node potentials keeps every cycle positive.
+		Random random = new Random(15);
+		int nodeCount = 200;
+		int[] shift = new int[nodeCount];
+		Graph g = new Graph();
+		for (int i = 0; i < nodeCount; i++) {
+			g.addNode(new GraphNode("n" + i));
+			shift[i] = random.nextInt(50);
+		}
+		int created = 0;
+		while (created < 800) {
+			int a = random.nextInt(nodeCount);
+			int b = random.nextInt(nodeCount);
+			if (a == b)
+				continue;
+			try {
+				g.createEdge("n" + a, "n" + b, (float) (1 + random.nextInt(100) + shift[a] - shift[b]));
+				created++;
+			} catch (DuplicateEdgeException e) {
+				// Try another pair.
+			}
+		}
+
+		DistanceMatrix matrix = DistanceMatrix.compute(g);
+		boolean[] delivered = new boolean[nodeCount];
+		Johnson.compute(g, (start, costs) -> {
+			int from = g.getNodeId(start);
+			Assert.assertFalse(delivered[from]);
+			delivered[from] = true;
+			for (int to = 0; to < nodeCount; to++)
+				Assert.assertEquals(matrix.distance(from, to), costs[to]);
+		});
+		for (boolean row : delivered)
+			Assert.assertTrue(row);
+	}
+
+	@Test
+	public void distanceTableMatchesDijkstra() throws Exception {
+
+		Graph g = coordinateGrid(40, 16);
+		Random random = new Random(16);
+		List<GraphNode> sources = new ArrayList<>();
+		List<GraphNode> targets = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			sources.add(g.getNode(random.nextInt(1600)));
+			targets.add(g.getNode(random.nextInt(1600)));
+		}
+		targets.add(new GraphNode("unknown"));
+		float[][] table = g.distanceTable(sources, targets);
+		Assert.assertEquals(30, table.length);
+		for (int s = 0; s < 30; s++) {
+			Assert.assertEquals(31, table[s].length);
+			for (int t = 0; t < 30; t++)
+				Assert.assertEquals(g.getLowestCost(sources.get(s), targets.get(t)), table[s][t]);
+			Assert.assertEquals(Float.POSITIVE_INFINITY, table[s][30]);
+		}
+
+		g = new Graph();
+		GraphNode a = g.addNode(new GraphNode("a"));
+		GraphNode b = g.addNode(new GraphNode("b"));
+		GraphNode c = g.addNode(new GraphNode("c"));
+		g.createEdge("a", "b", (float) 4);
+		g.createEdge("b", "c", (float) -2);
+		g.createEdge("a", "c", (float) 3);
+		table = g.distanceTable(Arrays.asList(a, c), Arrays.asList(a, b, c));
+		Assert.assertEquals((float) 0, table[0][0]);
+		Assert.assertEquals((float) 4, table[0][1]);
+		Assert.assertEquals((float) 2, table[0][2]);
+		Assert.assertEquals(Float.POSITIVE_INFINITY, table[1][0]);
+	}
+}
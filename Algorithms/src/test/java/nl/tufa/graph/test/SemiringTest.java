@@ -0,0 +1,110 @@
+package nl.tufa.graph.test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+import nl.tufa.fraction.Fraction;
+import nl.tufa.graph.Graph;
+import nl.tufa.graph.GraphEdge;
+import nl.tufa.graph.GraphNode;
+import nl.tufa.graph.Semirings;
+
+@SuppressWarnings("deprecation")
+public class SemiringTest {
+
+	@Test
+	public void longMatchesFloat() throws Exception {
+
+		Random random = new Random(31);
+		Graph g = new Graph();
+		for (int i = 0; i < 2000; i++) {
+			try {
+				g.createEdge("n" + random.nextInt(300), "n" + random.nextInt(300), (float) random.nextInt(1000));
+			} catch (Exception e) {
+				// Duplicate edge or self loop, skip.
+			}
+		}
+		GraphNode start = g.getNode(0);
+		float[] expected = g.getLowestCosts(start);
+		long[] costs = g.getLowestCosts(start, Semirings.shortestLong(), edge -> (long) edge.getWeightValue());
+		double[] doubles = g.getLowestCosts(start, Semirings.shortest(), GraphEdge::getWeightValue);
+		for (int node = 0; node < expected.length; node++) {
+			if (expected[node] == Float.POSITIVE_INFINITY) {
+				Assert.assertEquals(Long.MAX_VALUE, costs[node]);
+			} else {
+				Assert.assertEquals((long) expected[node], costs[node]);
+				Assert.assertEquals(expected[node], doubles[node], 0);
+			}
+			Assert.assertEquals(costs[node], g.getLowestCost(start, g.getNode(node), Semirings.shortestLong(),
+					edge -> (long) edge.getWeightValue()));
+		}
+	}
+
+	@Test
+	public void exactFractions() throws Exception {
+
+		Graph g = new Graph();
+		Map<GraphEdge, Fraction> prices = new HashMap<GraphEdge, Fraction>();
+		prices.put(g.createEdge("a", "b", (float) 0), new Fraction(1L, 3L));
+		prices.put(g.createEdge("b", "c", (float) 0), new Fraction(1L, 3L));
+		prices.put(g.createEdge("c", "d", (float) 0), new Fraction(1L, 3L));
+		prices.put(g.createEdge("a", "d", (float) 0), new Fraction(100000001L, 100000000L));
+		GraphNode a = g.getNode(g.getNodeId("a"));
+		GraphNode d = g.getNode(g.getNodeId("d"));
+
+		Fraction cost = g.getLowestCost(a, d, Semirings.shortestFraction(), prices::get);
+		Assert.assertEquals(new Fraction(1L, 1L), cost);
+		Assert.assertNull(g.getLowestCost(d, a, Semirings.shortestFraction(), prices::get));
+		List<Fraction> costs = g.getLowestCosts(a, Semirings.shortestFraction(), prices::get);
+		Assert.assertEquals(new Fraction(2L, 3L), costs.get(g.getNodeId("c")));
+	}
+
+	@Test
+	public void bottleneckAndReliability() throws Exception {
+
+		Graph g = new Graph();
+		g.createEdge("s", "a", (float) 0.5);
+		g.createEdge("a", "t", (float) 0.5);
+		g.createEdge("s", "b", (float) 0.9);
+		g.createEdge("b", "t", (float) 0.2);
+		g.createEdge("s", "c", (float) 0.3);
+		g.createEdge("c", "t", (float) 0.95);
+		GraphNode s = g.getNode(g.getNodeId("s"));
+		GraphNode t = g.getNode(g.getNodeId("t"));
+
+		Assert.assertEquals(0.5, g.getLowestCost(s, t, Semirings.bottleneck(), GraphEdge::getWeightValue), 1e-6);
+		Assert.assertEquals(0.285, g.getLowestCost(s, t, Semirings.reliability(), GraphEdge::getWeightValue), 1e-6);
+		Assert.assertEquals(Double.NEGATIVE_INFINITY,
+				g.getLowestCost(t, s, Semirings.bottleneck(), GraphEdge::getWeightValue));
+	}
+
+	@Test
+	public void weightsReadOnlyWhenRelaxed() throws Exception {
+
+		Graph g = new Graph();
+		int length = 10000;
+		for (int i = 0; i < length; i++)
+			g.createEdge("n" + i, "n" + (i + 1), (float) 1);
+		AtomicInteger reads = new AtomicInteger();
+		long cost = g.getLowestCost(g.getNode(g.getNodeId("n0")), g.getNode(g.getNodeId("n3")),
+				Semirings.shortestLong(), edge -> {
+					reads.incrementAndGet();
+					return (long) edge.getWeightValue();
+				});
+		Assert.assertEquals(3, cost);
+		Assert.assertTrue(reads.get() < 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void improvingWeight() throws Exception {
+		Graph g = new Graph();
+		g.createEdge("a", "b", (float) -1);
+		g.getLowestCosts(g.getNode(0), Semirings.shortest(), GraphEdge::getWeightValue);
+	}
+}
@@ -0,0 +1,188 @@
+package nl.tufa.graph.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+import nl.tufa.graph.DuplicateEdgeException;
+import nl.tufa.graph.DynamicShortestPathTree;
+import nl.tufa.graph.Graph;
+import nl.tufa.graph.GraphEdge;
+import nl.tufa.graph.GraphNode;
+import nl.tufa.graph.QueryMode;
+import nl.tufa.graph.ShortestPath;
+import nl.tufa.graph.ShortestPathTree;
+
+@SuppressWarnings("deprecation")
+public class ShortestPathTest {
+
+	private static void assertPath(ShortestPath path) {
+
+		float cost = 0;
+		Assert.assertEquals(path.getEdges().size() + 1, path.getNodes().size());
+		for (int i = 0; i < path.getEdges().size(); i++) {
+			GraphEdge edge = path.getEdges().get(i);
+			Assert.assertEquals(path.getNodes().get(i), edge.getStart());
+			Assert.assertEquals(path.getNodes().get(i + 1), edge.getEnd());
+			cost += edge.getWeight();
+		}
+		Assert.assertEquals(path.getCost(), cost);
+	}
+
+	@Test
+	public void routeOnSmallGraph() throws Exception {
+
+		Graph g = new Graph();
+		GraphNode start = g.addNode(new GraphNode("start"));
+		GraphNode end = g.addNode(new GraphNode("end"));
+		g.createEdge("start", "a", (float) 5);
+		g.createEdge("start", "b", (float) 2);
+		g.createEdge("b", "a", (float) 8);
+		g.createEdge("a", "c", (float) 4);
+		g.createEdge("a", "d", (float) 2);
+		g.createEdge("b", "d", (float) 7);
+		g.createEdge("c", "d", (float) 6);
+		g.createEdge("c", "end", (float) 3);
+		g.createEdge("d", "end", (float) 1);
+
+		for (QueryMode mode : QueryMode.values()) {
+			if (mode == QueryMode.LONGEST_PATH)
+				continue;
+			g.setQueryMode(mode);
+			ShortestPath path = g.getShortestPath(start, end);
+			Assert.assertEquals("start -> a -> d -> end (8.0)", path.toString());
+			assertPath(path);
+		}
+		Assert.assertNull(g.getShortestPath(end, start));
+		ShortestPath empty = g.getShortestPath(start, start);
+		Assert.assertEquals(0, empty.getEdges().size());
+		Assert.assertEquals(start, empty.getEnd());
+
+		g.setQueryMode(QueryMode.LONGEST_PATH);
+		ShortestPath longest = g.getShortestPath(start, end);
+		Assert.assertEquals("start -> b -> a -> c -> d -> end (21.0)", longest.toString());
+		assertPath(longest);
+		g.setQueryMode(QueryMode.DIJKSTRA);
+
+		g.createEdge("b", "c", (float) -6);
+		Assert.assertEquals("start -> b -> c -> end (-1.0)", g.getShortestPath(start, end).toString());
+	}
+
+	@Test
+	public void treeMatchesLowestCost() throws Exception {
+
+		Random random = new Random(17);
+		Graph g = new Graph();
+		GraphNode start = g.addNode(new GraphNode("n0"));
+		for (int i = 1; i < 500; i++)
+			g.addNode(new GraphNode("n" + i));
+		int created = 0;
+		while (created < 1500) {
+			int a = random.nextInt(500);
+			int b = random.nextInt(500);
+			if (a == b)
+				continue;
+			try {
+				g.createEdge("n" + a, "n" + b, (float) (1 + random.nextInt(100)));
+				created++;
+			} catch (DuplicateEdgeException e) {
+				// Try another pair.
+			}
+		}
+
+		ShortestPathTree tree = g.getShortestPathTree(start);
+		Assert.assertEquals(start, tree.getStart());
+		for (int id = 0; id < 500; id++) {
+			GraphNode node = g.getNode(id);
+			Float cost = g.getLowestCost(start, node);
+			Assert.assertEquals(cost, tree.getCost(node));
+			ShortestPath path = tree.getPath(node);
+			if (cost == null) {
+				Assert.assertNull(path);
+				continue;
+			}
+			Assert.assertEquals(node, path.getEnd());
+			assertPath(path);
+		}
+	}
+
+	@Test
+	public void hierarchyRoutesMatchDijkstra() throws Exception {
+
+		Random random = new Random(19);
+		Graph g = new Graph();
+		for (int i = 0; i < 2000; i++) {
+			try {
+				g.createEdge("n" + random.nextInt(400), "n" + random.nextInt(400), (float) (1 + random.nextInt(50)));
+			} catch (Exception e) {
+				// Duplicate edge or self loop, skip.
+			}
+		}
+		g.setQueryMode(QueryMode.CONTRACTION_HIERARCHY);
+		int nodeCount = g.getIndex().getNodeCount();
+		for (int q = 0; q < 300; q++) {
+			GraphNode start = g.getNode(random.nextInt(nodeCount));
+			GraphNode end = g.getNode(random.nextInt(nodeCount));
+			Float cost = g.getLowestCost(start, end, QueryMode.DIJKSTRA);
+			ShortestPath path = g.getShortestPath(start, end);
+			if (cost == null) {
+				Assert.assertNull(path);
+				continue;
+			}
+			Assert.assertEquals(cost.floatValue(), path.getCost());
+			Assert.assertEquals(start, path.getStart());
+			Assert.assertEquals(end, path.getEnd());
+			assertPath(path);
+		}
+	}
+
+	@Test
+	public void dynamicTreeFollowsWeightChanges() throws Exception {
+
+		int size = 30;
+		Random random = new Random(18);
+		Graph g = new Graph();
+		List<GraphEdge> edges = new ArrayList<>();
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					edges.add(g.createEdge(x + "," + y, (x + 1) + "," + y, (float) (1 + random.nextInt(9))));
+					edges.add(g.createEdge((x + 1) + "," + y, x + "," + y, (float) (1 + random.nextInt(9))));
+				}
+				if (y + 1 < size) {
+					edges.add(g.createEdge(x + "," + y, x + "," + (y + 1), (float) (1 + random.nextInt(9))));
+					edges.add(g.createEdge(x + "," + (y + 1), x + "," + y, (float) (1 + random.nextInt(9))));
+				}
+			}
+		}
+		GraphNode start = g.getNode(g.getNodeId("0,0"));
+		DynamicShortestPathTree tree = DynamicShortestPathTree.build(g, start);
+
+		int repaired = 0;
+		for (int update = 0; update < 300; update++) {
+			GraphEdge edge = edges.get(random.nextInt(edges.size()));
+			edge.setWeight((float) (1 + random.nextInt(9)));
+			repaired += tree.getRepairedCount();
+			if (update % 30 == 0) {
+				for (int id = 0; id < size * size; id++) {
+					GraphNode node = g.getNode(id);
+					Assert.assertEquals(g.getLowestCost(start, node), tree.getCost(node));
+				}
+				assertPath(tree.getPath(g.getNode(g.getNodeId((size - 1) + "," + (size - 1)))));
+			}
+		}
+		// Repairs touch a small part of the tree on average.
+		Assert.assertTrue(repaired < 300 * size * size / 4);
+
+		// A new edge changes the structure, the tree is rebuilt.
+		g.createEdge("0,0", (size - 1) + "," + (size - 1), (float) 1);
+		Assert.assertEquals((float) 1, tree.getCost(g.getNode(g.getNodeId((size - 1) + "," + (size - 1)))));
+
+		tree.close();
+		edges.get(0).setWeight((float) 100);
+		Assert.assertEquals(g.getLowestCost(start, edges.get(0).getEnd()), tree.getCost(edges.get(0).getEnd()));
+	}
+}
@@ -0,0 +1,94 @@
+package nl.tufa.graph.test;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+import nl.tufa.graph.Graph;
+import nl.tufa.graph.GraphIndex;
+import nl.tufa.graph.GraphNode;
+import nl.tufa.graph.OffHeapGraphBuilder;
+import nl.tufa.graph.StronglyConnectedComponents;
+
+@SuppressWarnings("deprecation")
+public class StronglyConnectedComponentsTest {
+
+	@Test
+	public void componentsAndCondensation() throws Exception {
+
+		Graph g = new Graph();
+		g.createEdge("a", "b", (float) 1);
+		g.createEdge("b", "c", (float) 1);
+		g.createEdge("c", "a", (float) 1);
+		g.createEdge("c", "d", (float) 4);
+		g.createEdge("b", "d", (float) 2);
+		g.createEdge("d", "e", (float) 1);
+		g.createEdge("e", "d", (float) 1);
+		g.createEdge("f", "e", (float) 1);
+		StronglyConnectedComponents components = g.getIndex().getComponents();
+
+		Assert.assertEquals(3, components.getCount());
+		int abc = components.getComponent(g.getNodeId("a"));
+		Assert.assertEquals(abc, components.getComponent(g.getNodeId("c")));
+		Assert.assertEquals(components.getComponent(g.getNodeId("d")), components.getComponent(g.getNodeId("e")));
+		Assert.assertFalse(abc == components.getComponent(g.getNodeId("d")));
+		Assert.assertEquals(-1, components.getComponent(new GraphNode("missing")));
+
+		Graph condensation = components.getCondensation();
+		Assert.assertTrue(condensation.getIndex().isAcyclic());
+		Assert.assertEquals(2, condensation.getIndex().getEdgeCount());
+		GraphNode from = condensation.getNode(abc);
+		GraphNode to = condensation.getNode(components.getComponent(g.getNodeId("e")));
+		Assert.assertEquals((float) 2, condensation.getLowestCost(from, to));
+
+		Assert.assertNull(g.getLowestCost(g.getNode(g.getNodeId("d")), g.getNode(g.getNodeId("a"))));
+		Assert.assertNull(g.getLowestCost(g.getNode(g.getNodeId("f")), g.getNode(g.getNodeId("a"))));
+		Assert.assertEquals((float) 4, g.getLowestCost(g.getNode(g.getNodeId("a")), g.getNode(g.getNodeId("e"))));
+	}
+
+	@Test
+	public void neverRulesOutReachableNodes() throws Exception {
+
+		Random random = new Random(37);
+		Graph g = new Graph();
+		for (int i = 0; i < 900; i++) {
+			try {
+				g.createEdge("n" + random.nextInt(400), "n" + random.nextInt(400), (float) random.nextInt(10));
+			} catch (Exception e) {
+				// Duplicate edge or self loop, skip.
+			}
+		}
+		GraphIndex index = g.getIndex();
+		StronglyConnectedComponents components = index.getComponents();
+		for (int source = 0; source < index.getNodeCount(); source += 7) {
+			float[] costs = g.getLowestCosts(g.getNode(source));
+			for (int target = 0; target < costs.length; target++) {
+				if (costs[target] != Float.POSITIVE_INFINITY)
+					Assert.assertTrue(components.mayReach(source, target));
+				if (costs[target] != Float.POSITIVE_INFINITY && costs[source] != Float.POSITIVE_INFINITY
+						&& g.getLowestCosts(g.getNode(target))[source] != Float.POSITIVE_INFINITY)
+					Assert.assertEquals(components.getComponent(source), components.getComponent(target));
+			}
+		}
+	}
+
+	@Test
+	public void longPathWithoutRecursion() throws Exception {
+
+		// One cycle through a million nodes and a tail hanging off it.
+		OffHeapGraphBuilder builder = new OffHeapGraphBuilder();
+		int length = 1000000;
+		for (int i = 0; i < length; i++)
+			builder.addNode("n" + i);
+		for (int i = 0; i + 1 < length; i++)
+			builder.addEdge(i, i + 1, 1);
+		builder.addEdge(length - 2, 0, 1);
+		Graph g = builder.build();
+		StronglyConnectedComponents components = g.getIndex().getComponents();
+
+		Assert.assertEquals(2, components.getCount());
+		Assert.assertEquals(components.getComponent(0), components.getComponent(length - 2));
+		Assert.assertNull(g.getLowestCost(g.getNode("n" + (length - 1)), g.getNode("n0")));
+	}
+}